@@ -0,0 +1,29 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncIngestConfig {
+
+    /**
+     * Bounded pool for asynchronous ingestion: once the queue is full, new submissions
+     * are rejected instead of piling up.
+     */
+    @Bean(name = "ingestExecutor")
+    public ThreadPoolTaskExecutor ingestExecutor(
+            @Value("${documents.ingest.pool-size:4}") int poolSize,
+            @Value("${documents.ingest.queue-capacity:100}") int queueCapacity) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("ingest-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ImageNormalizationConfig {
+
+    /**
+     * Bounded pool for re-encoding uploaded images after commit. Normalization is optional,
+     * so work that does not fit in the queue is dropped rather than slowing uploads down.
+     */
+    @Bean(name = "normalizationExecutor")
+    public ThreadPoolTaskExecutor normalizationExecutor(
+            @Value("${documents.normalization.pool-size:1}") int poolSize,
+            @Value("${documents.normalization.queue-capacity:100}") int queueCapacity) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("normalize-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.config;
+
+import jakarta.servlet.MultipartConfigElement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.servlet.autoconfigure.MultipartProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+@Configuration
+@ConditionalOnBooleanProperty(name = "spring.servlet.multipart.enabled", matchIfMissing = true)
+@EnableConfigurationProperties(MultipartProperties.class)
+public class MultipartSpoolConfig {
+
+    /**
+     * Spool multipart parts above spring.servlet.multipart.file-size-threshold into the storage
+     * staging directory, so storing an upload renames the container's part file instead of
+     * copying it. An explicit spring.servlet.multipart.location still takes precedence.
+     */
+    @Bean
+    public MultipartConfigElement multipartConfigElement(
+            MultipartProperties properties,
+            @Value("${documents.storage.staging-dir:uploads/documents/blobs/.tmp}") String stagingDir)
+            throws IOException {
+
+        if (!StringUtils.hasText(properties.getLocation())) {
+            // The container does not create the location and resolves relative paths against its own temp dir
+            Path spoolDir = Files.createDirectories(Paths.get(stagingDir).toAbsolutePath());
+            properties.setLocation(spoolDir.toString());
+        }
+        return properties.createMultipartConfig();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class PreviewConfig {
+
+    /**
+     * Small bounded pool for preview rendering: decoding PDFs and large images is CPU and
+     * memory heavy, so only a few renders run at once and excess requests are turned away.
+     */
+    @Bean(name = "previewExecutor")
+    public ThreadPoolTaskExecutor previewExecutor(
+            @Value("${documents.preview.pool-size:2}") int poolSize,
+            @Value("${documents.preview.queue-capacity:50}") int queueCapacity) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("preview-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
@@ -20,6 +20,7 @@ import com.example.demo.filter.JwtFilter;
 import com.example.demo.filter.LoginFilter;
 import com.example.demo.filter.LogoutAuthFilter;
 import com.example.demo.filter.SocieteFilter;
+import com.example.demo.filter.UploadAdmissionFilter;
 import com.example.demo.security.CustomUserDetailsService;
 import com.example.demo.service.JwtBlacklistService;
 
@@ -32,6 +33,7 @@ public class SecurityConfig {
     JwtFilter jwtFilter;
     ComptableFilter comptableFilter;
     SocieteFilter societeFilter;
+    UploadAdmissionFilter uploadAdmissionFilter;
     JwtContract jwtService;
     CustomUserDetailsService userDetailsService;
     JwtBlacklistService jwtBlacklistService;
@@ -60,6 +62,7 @@ public class SecurityConfig {
                 .addFilterBefore(logoutFilter, UsernamePasswordAuthenticationFilter.class) // Logout filter
                 .addFilterAfter(comptableFilter, JwtFilter.class)
                 .addFilterAfter(societeFilter, ComptableFilter.class)
+                .addFilterAfter(uploadAdmissionFilter, SocieteFilter.class) // Per-société upload limits
                 .build();
     }
 
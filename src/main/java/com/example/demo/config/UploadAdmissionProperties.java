@@ -0,0 +1,40 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Upload admission limits: defaults for every société, overridable per ICE, e.g.
+ * documents.upload.admission.tenants.001234567000089.max-concurrent=8
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "documents.upload.admission")
+public class UploadAdmissionProperties {
+
+    private boolean enabled = true;
+
+    /** Upload requests a société may have in progress at once */
+    private int maxConcurrent = 4;
+
+    /** Sustained upload volume per société */
+    private DataSize bytesPerSecond = DataSize.ofMegabytes(5);
+
+    /** Volume a société may send in a burst before being held to bytesPerSecond */
+    private DataSize burst = DataSize.ofMegabytes(50);
+
+    /** Per-ICE overrides; unset fields fall back to the defaults above */
+    private Map<String, TenantLimits> tenants = new HashMap<>();
+
+    @Data
+    public static class TenantLimits {
+        private Integer maxConcurrent;
+        private DataSize bytesPerSecond;
+        private DataSize burst;
+    }
+}
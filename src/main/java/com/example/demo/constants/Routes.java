@@ -6,6 +6,7 @@ public class Routes {
 
     public static final List<String> open_routes = List.of(
             "/api/auth/login",
+            "/api/files/**",
             "/h2-console/**");
 
     public static final List<String> societe_routes = List.of(
@@ -0,0 +1,49 @@
+package com.example.demo.contract;
+
+import com.example.demo.dto.DocumentResponseDTO;
+import com.example.demo.dto.UploadSessionDTO;
+import com.example.demo.dto.UploadSessionRequestDTO;
+import com.example.demo.entity.User;
+
+import java.io.InputStream;
+
+public interface ChunkedUploadContract {
+
+    /**
+     * Open a resumable upload session and preallocate its file
+     *
+     * @param request Document metadata and announced file size
+     * @param user    Uploading user
+     * @return New session, at offset 0
+     */
+    UploadSessionDTO createSession(UploadSessionRequestDTO request, User user);
+
+    /**
+     * Get the current state of a session, used by clients to find where to resume
+     *
+     * @param sessionId Session id
+     * @param user      Uploading user
+     * @return Current session state
+     */
+    UploadSessionDTO getSession(String sessionId, User user);
+
+    /**
+     * Append a chunk at the given offset, which must match the bytes already received
+     *
+     * @param sessionId Session id
+     * @param offset    Offset of the chunk in the file
+     * @param chunk     Chunk content
+     * @param user      Uploading user
+     * @return Session state after the chunk
+     */
+    UploadSessionDTO appendChunk(String sessionId, long offset, InputStream chunk, User user);
+
+    /**
+     * Turn a fully received session into a document, through the regular upload path
+     *
+     * @param sessionId Session id
+     * @param user      Uploading user
+     * @return Created document
+     */
+    DocumentResponseDTO complete(String sessionId, User user);
+}
@@ -0,0 +1,17 @@
+package com.example.demo.contract;
+
+import com.example.demo.dto.DocumentFileDTO;
+
+public interface DocumentExportContract {
+
+    /**
+     * Build the ZIP archive of every document of a société for one exercice, with a CSV
+     * manifest of their metadata. The archive is streamed from storage as it is read and
+     * can be served by byte ranges.
+     *
+     * @param societeId Société id
+     * @param exercice  Exercice comptable
+     * @return Archive resource and its validators
+     */
+    DocumentFileDTO exportExercice(Long societeId, Integer exercice);
+}
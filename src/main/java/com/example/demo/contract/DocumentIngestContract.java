@@ -0,0 +1,28 @@
+package com.example.demo.contract;
+
+import com.example.demo.dto.DocumentUploadDTO;
+import com.example.demo.dto.IngestStatusDTO;
+import com.example.demo.entity.User;
+import org.springframework.web.multipart.MultipartFile;
+
+public interface DocumentIngestContract {
+
+    /**
+     * Spool the upload to the staging area and queue it for validation and persistence
+     *
+     * @param dto  Document metadata
+     * @param file Uploaded file
+     * @param user Uploading user
+     * @return Initial status holding the tracking id
+     */
+    IngestStatusDTO submit(DocumentUploadDTO dto, MultipartFile file, User user);
+
+    /**
+     * Get the outcome of a queued upload
+     *
+     * @param trackingId Tracking id returned by submit
+     * @param user       User asking, must be the uploader
+     * @return Current status of the upload
+     */
+    IngestStatusDTO getStatus(String trackingId, User user);
+}
@@ -0,0 +1,24 @@
+package com.example.demo.contract;
+
+import com.example.demo.dto.DocumentFileDTO;
+import com.example.demo.entity.User;
+
+public interface DocumentPreviewContract {
+
+    /**
+     * Get a small JPEG rendition of a document (first page of a PDF, downscaled image),
+     * rendering it on first access
+     *
+     * @param documentId Document id
+     * @param user       Authenticated user, who must be allowed to read the document
+     * @return Cached rendition and its validators
+     */
+    DocumentFileDTO getPreview(Long documentId, User user);
+
+    /**
+     * Drop the cached rendition of a document, e.g. after its content changed
+     *
+     * @param documentId Document id
+     */
+    void evict(Long documentId);
+}
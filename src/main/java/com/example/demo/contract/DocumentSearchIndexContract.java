@@ -0,0 +1,31 @@
+package com.example.demo.contract;
+
+import com.example.demo.dto.DocumentPageDTO;
+
+public interface DocumentSearchIndexContract {
+
+    /**
+     * Full-text search over the fournisseur, catégorie, commentaire, numéro de pièce and file
+     * name of documents. Each word of the query matches by prefix or with a few typos.
+     *
+     * @param query     Words to look for
+     * @param societeId Société to search in, or null for every société
+     * @param size      Maximum number of documents, best matches first
+     * @return The matching documents; nextCursor is always null
+     */
+    DocumentPageDTO search(String query, Long societeId, Integer size);
+
+    /**
+     * Add or refresh a document in the index
+     *
+     * @param documentId Document id
+     */
+    void index(Long documentId);
+
+    /**
+     * Drop the index and index every document again
+     *
+     * @return Number of documents indexed
+     */
+    long rebuild();
+}
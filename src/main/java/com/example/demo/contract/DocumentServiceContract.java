@@ -1,6 +1,10 @@
 package com.example.demo.contract;
 
+import com.example.demo.dto.DocumentBatchResultDTO;
+import com.example.demo.dto.DocumentFileDTO;
+import com.example.demo.dto.DocumentPageDTO;
 import com.example.demo.dto.DocumentResponseDTO;
+import com.example.demo.dto.DocumentSearchDTO;
 import com.example.demo.dto.DocumentUploadDTO;
 import com.example.demo.dto.DocumentValidationDTO;
 import com.example.demo.entity.User;
@@ -12,19 +16,31 @@ public interface DocumentServiceContract {
 
     DocumentResponseDTO uploadDocument(DocumentUploadDTO dto, MultipartFile file, User user);
 
-    List<DocumentResponseDTO> getDocumentsBySocieteAndExercice(Long societeId, Integer exercice);
+    DocumentBatchResultDTO uploadDocuments(List<DocumentUploadDTO> dtos, List<MultipartFile> files, User user);
 
-    List<DocumentResponseDTO> getAllPendingDocuments();
+    /**
+     * Listings are keyset-paginated in (createdAt, id) order: pass the nextCursor of a page
+     * to get the following one, and null for the first page. The size is capped.
+     */
+    DocumentPageDTO getDocumentsBySocieteAndExercice(Long societeId, Integer exercice, String cursor, Integer size);
 
-    List<DocumentResponseDTO> getPendingDocumentsByExercice(Integer exercice);
+    DocumentPageDTO getAllPendingDocuments(String cursor, Integer size);
+
+    DocumentPageDTO getPendingDocumentsByExercice(Integer exercice, String cursor, Integer size);
+
+    /**
+     * Documents matching every criterion that is set, keyset-paginated in the requested order.
+     * A cursor is only valid for the sort it was issued with.
+     */
+    DocumentPageDTO searchDocuments(DocumentSearchDTO criteria, String cursor, Integer size);
 
     DocumentResponseDTO validateDocument(Long documentId, DocumentValidationDTO validation, User comptable);
 
     DocumentResponseDTO getDocumentById(Long id);
 
-    List<DocumentResponseDTO> getDocumentsBySociete(Long societeId);
+    DocumentPageDTO getDocumentsBySociete(Long societeId, String cursor, Integer size);
 
-    byte[] downloadDocument(Long documentId);
+    DocumentFileDTO downloadDocument(Long documentId);
 
     void deleteAllDocuments();
 }
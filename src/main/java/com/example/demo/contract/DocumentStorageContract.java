@@ -0,0 +1,78 @@
+package com.example.demo.contract;
+
+import com.example.demo.entity.StoredBlob;
+import org.springframework.core.io.Resource;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Path;
+
+public interface DocumentStorageContract {
+
+    /**
+     * Store an uploaded file under its SHA-256 digest. The file is first staged locally, then
+     * the staged copy is read once to compute its digest (and CRC-32) before it is put in storage.
+     * Identical content is stored once and its reference count is incremented.
+     *
+     * @param file Uploaded file
+     * @return Blob holding the file content
+     */
+    StoredBlob store(MultipartFile file);
+
+    /**
+     * Open the content of a blob for streaming. Nothing is read until the resource is consumed.
+     *
+     * @param empreinteSha256 SHA-256 digest of the blob
+     * @return Resource over the blob content, with its length and last modification date
+     */
+    Resource open(String empreinteSha256);
+
+    /**
+     * Open the content of an already loaded blob for streaming, without querying it again
+     *
+     * @param blob Blob to read
+     * @return Resource over the blob content, with its length and last modification date
+     */
+    Resource open(StoredBlob blob);
+
+    /**
+     * Move a file written outside the blob store (legacy per-société layout) into it,
+     * deduplicating against existing blobs
+     *
+     * @param file Path of the existing file
+     * @return Blob now holding the file content
+     */
+    StoredBlob adopt(Path file);
+
+    /**
+     * Move a blob to the path expected by the current shard layout
+     *
+     * @param blob Blob to check
+     * @return true if the blob was moved, false if it was already in place
+     */
+    boolean relocate(StoredBlob blob);
+
+    /**
+     * Compute the CRC-32 of a blob stored before it was recorded, by reading its content once,
+     * and save it on the blob row
+     *
+     * @param blob Blob without a CRC-32
+     * @return CRC-32 of the original (uncompressed) content
+     */
+    long recordCrc32(StoredBlob blob);
+
+    /**
+     * Drop one reference to a blob, deleting its content when no document uses it anymore
+     *
+     * @param empreinteSha256 SHA-256 digest of the blob
+     */
+    void release(String empreinteSha256);
+
+    /**
+     * Delete a blob and its content if no document references it, under its row lock so that an
+     * upload of the same content either references it first or writes the content anew
+     *
+     * @param blobId Identifier of the blob
+     * @return true if the blob was deleted
+     */
+    boolean reapIfUnreferenced(Long blobId);
+}
@@ -0,0 +1,13 @@
+package com.example.demo.contract;
+
+public interface ImageNormalizationContract {
+
+    /**
+     * Re-encode the image content of a document to the configured resolution and quality,
+     * then point the document at the new content
+     *
+     * @param documentId Document id
+     * @return true if the document content was replaced, false if it was left as is
+     */
+    boolean normalize(Long documentId);
+}
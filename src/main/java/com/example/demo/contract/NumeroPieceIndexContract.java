@@ -0,0 +1,25 @@
+package com.example.demo.contract;
+
+/**
+ * Node-local index of the numéros de pièce in use. Numbers inserted by other nodes after
+ * warm-up are unknown here, so a false answer is only certain on a single node; the unique
+ * constraint on the column remains the actual guarantee against duplicates.
+ */
+public interface NumeroPieceIndexContract {
+
+    /**
+     * Check whether a numéro de pièce may already exist.
+     * false means the number is certainly unused and the database can be skipped.
+     *
+     * @param numeroPiece Numéro de pièce to check
+     * @return true if the number may exist, false if it certainly does not
+     */
+    boolean mightContain(String numeroPiece);
+
+    /**
+     * Record a numéro de pièce that has been (or is about to be) inserted
+     *
+     * @param numeroPiece Numéro de pièce to record
+     */
+    void add(String numeroPiece);
+}
@@ -0,0 +1,27 @@
+package com.example.demo.contract;
+
+import com.example.demo.dto.DocumentFileDTO;
+import com.example.demo.dto.SignedUrlDTO;
+import com.example.demo.entity.User;
+
+public interface SignedDownloadContract {
+
+    /**
+     * Mint a short-lived download URL for a document. Everything needed to serve the file
+     * is carried in the signed token, so using the URL requires no authentication and no
+     * database access.
+     *
+     * @param documentId Document id
+     * @param user       User asking for the link: a société user only gets links to its own documents
+     * @return Signed URL and its expiry
+     */
+    SignedUrlDTO sign(Long documentId, User user);
+
+    /**
+     * Check the signature and expiry of a token and open the file it grants access to
+     *
+     * @param token Token from a signed URL
+     * @return File resource and its validators
+     */
+    DocumentFileDTO resolve(String token);
+}
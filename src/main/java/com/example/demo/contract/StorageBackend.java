@@ -0,0 +1,58 @@
+package com.example.demo.contract;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Object storage holding the blob contents. Keys are relative, '/'-separated paths
+ * such as {@code 6a/e8/6ae8a755...}; the backend is selected with documents.storage.backend.
+ */
+public interface StorageBackend {
+
+    /**
+     * Store a local file under a key, replacing any existing object.
+     * The backend may consume the source file (the local backend moves it).
+     *
+     * @param key    Object key
+     * @param source Local file holding the content
+     */
+    void put(String key, Path source) throws IOException;
+
+    /**
+     * @param key Object key
+     * @return Stream over the whole object, to be closed by the caller
+     */
+    InputStream get(String key) throws IOException;
+
+    /**
+     * @param key    Object key
+     * @param offset First byte to read
+     * @param length Number of bytes to read
+     * @return Stream over the requested byte range, to be closed by the caller
+     */
+    InputStream getRange(String key, long offset, long length) throws IOException;
+
+    /**
+     * @param key Object key
+     * @return true if an object is stored under the key
+     */
+    boolean exists(String key) throws IOException;
+
+    /**
+     * Delete an object, doing nothing if it does not exist
+     *
+     * @param key Object key
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * List stored keys in lexical order, one page at a time
+     *
+     * @param startAfter Last key of the previous page, or null to start from the beginning
+     * @param maxKeys    Maximum number of keys to return
+     * @return Keys following startAfter; fewer than maxKeys once the listing is exhausted
+     */
+    List<String> list(String startAfter, int maxKeys) throws IOException;
+}
@@ -0,0 +1,18 @@
+package com.example.demo.contract;
+
+public interface StorageMigrationContract {
+
+    /**
+     * Migrate the next batch of files to the current storage layout: legacy per-société
+     * files first, then blobs whose path no longer matches the shard layout, then blobs
+     * stored before their CRC-32 was recorded (needed by exports)
+     *
+     * @return Number of documents or blobs migrated in this batch
+     */
+    int migrateNextBatch();
+
+    /**
+     * @return true once every file follows the current layout and has its CRC-32
+     */
+    boolean isFinished();
+}
@@ -0,0 +1,13 @@
+package com.example.demo.contract;
+
+public interface StorageReconciliationContract {
+
+    /**
+     * Run one reconciliation step between the storage backend and the blob rows, spending at
+     * most the configured I/O budget: expired upload intents, blobs whose content is missing,
+     * then stored objects no blob references. Each check resumes where the previous run stopped.
+     *
+     * @return Number of storage operations spent
+     */
+    int reconcileNextBatch();
+}
@@ -0,0 +1,21 @@
+package com.example.demo.contract;
+
+public interface UploadAdmissionContract {
+
+    /**
+     * Admit an upload request of a société, or reject it immediately when the société is over
+     * its concurrency or byte-rate limit. An admitted request must be followed by {@link #release(String)}.
+     *
+     * @param ice   ICE of the uploading société
+     * @param bytes Size of the request body
+     * @throws com.example.demo.exception.TooManyRequestsException if the request is over a limit
+     */
+    void acquire(String ice, long bytes);
+
+    /**
+     * Free the concurrency slot taken by an admitted request
+     *
+     * @param ice ICE of the uploading société
+     */
+    void release(String ice);
+}
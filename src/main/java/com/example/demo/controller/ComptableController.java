@@ -1,28 +1,40 @@
 package com.example.demo.controller;
 
+import com.example.demo.contract.DocumentExportContract;
+import com.example.demo.contract.DocumentPreviewContract;
+import com.example.demo.contract.DocumentSearchIndexContract;
 import com.example.demo.contract.DocumentServiceContract;
+import com.example.demo.contract.SignedDownloadContract;
+import com.example.demo.dto.DocumentFileDTO;
+import com.example.demo.dto.DocumentPageDTO;
 import com.example.demo.dto.DocumentResponseDTO;
+import com.example.demo.dto.DocumentSearchDTO;
 import com.example.demo.dto.DocumentValidationDTO;
+import com.example.demo.dto.SignedUrlDTO;
 import com.example.demo.entity.User;
 import com.example.demo.security.CustomUserDetails;
+import com.example.demo.util.DocumentDownloadResponse;
+import com.example.demo.util.DocumentMetadataResponse;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/comptable")
 @RequiredArgsConstructor
 public class ComptableController {
 
     private final DocumentServiceContract documentService;
+    private final DocumentPreviewContract documentPreview;
+    private final DocumentExportContract documentExport;
+    private final SignedDownloadContract signedDownload;
+    private final DocumentSearchIndexContract documentSearchIndex;
 
     @GetMapping("/info")
     public ResponseEntity<String> getComptableInfo() {
@@ -30,27 +42,70 @@ public class ComptableController {
     }
 
     @GetMapping("/documents/pending")
-    public ResponseEntity<List<DocumentResponseDTO>> getAllPendingDocuments() {
-        List<DocumentResponseDTO> documents = documentService.getAllPendingDocuments();
+    public ResponseEntity<DocumentPageDTO> getAllPendingDocuments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+
+        DocumentPageDTO documents = documentService.getAllPendingDocuments(cursor, size);
         return ResponseEntity.ok(documents);
     }
 
     @GetMapping("/documents/pending/exercice/{exercice}")
-    public ResponseEntity<List<DocumentResponseDTO>> getPendingDocumentsByExercice(
-            @PathVariable Integer exercice) {
+    public ResponseEntity<DocumentPageDTO> getPendingDocumentsByExercice(
+            @PathVariable Integer exercice,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
 
-        List<DocumentResponseDTO> documents = documentService.getPendingDocumentsByExercice(exercice);
+        DocumentPageDTO documents = documentService.getPendingDocumentsByExercice(exercice, cursor, size);
         return ResponseEntity.ok(documents);
     }
 
     @GetMapping("/documents/societe/{societeId}")
-    public ResponseEntity<List<DocumentResponseDTO>> getDocumentsBySociete(
-            @PathVariable Long societeId) {
+    public ResponseEntity<DocumentPageDTO> getDocumentsBySociete(
+            @PathVariable Long societeId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+
+        DocumentPageDTO documents = documentService.getDocumentsBySociete(societeId, cursor, size);
+        return ResponseEntity.ok(documents);
+    }
+
+    @GetMapping("/documents/filter")
+    public ResponseEntity<DocumentPageDTO> searchDocuments(
+            DocumentSearchDTO criteria,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
 
-        List<DocumentResponseDTO> documents = documentService.getDocumentsBySociete(societeId);
+        DocumentPageDTO documents = documentService.searchDocuments(criteria, cursor, size);
         return ResponseEntity.ok(documents);
     }
 
+    @GetMapping("/documents/search")
+    public ResponseEntity<DocumentPageDTO> fullTextSearch(
+            @RequestParam String q,
+            @RequestParam(required = false) Long societeId,
+            @RequestParam(required = false) Integer size) {
+
+        DocumentPageDTO documents = documentSearchIndex.search(q, societeId, size);
+        return ResponseEntity.ok(documents);
+    }
+
+    @PostMapping("/documents/search/rebuild")
+    public ResponseEntity<Long> rebuildSearchIndex() {
+        long indexed = documentSearchIndex.rebuild();
+        return ResponseEntity.ok(indexed);
+    }
+
+    @GetMapping("/documents/societe/{societeId}/exercice/{exercice}/export")
+    public ResponseEntity<Resource> exportExercice(
+            @PathVariable Long societeId,
+            @PathVariable Integer exercice,
+            @RequestHeader HttpHeaders headers) {
+
+        DocumentFileDTO archive = documentExport.exportExercice(societeId, exercice);
+        return DocumentDownloadResponse.build(archive, headers);
+    }
+
     @PostMapping("/documents/{id}/validate")
     public ResponseEntity<DocumentResponseDTO> validateDocument(
             @PathVariable Long id,
@@ -67,20 +122,37 @@ public class ComptableController {
     @GetMapping("/documents/{id}")
     public ResponseEntity<DocumentResponseDTO> getDocument(@PathVariable Long id) {
         DocumentResponseDTO document = documentService.getDocumentById(id);
-        return ResponseEntity.ok(document);
+        return DocumentMetadataResponse.build(document);
     }
 
     @GetMapping("/documents/{id}/download")
-    public ResponseEntity<byte[]> downloadDocument(@PathVariable Long id) {
-        byte[] fileContent = documentService.downloadDocument(id);
-        DocumentResponseDTO document = documentService.getDocumentById(id);
+    public ResponseEntity<Resource> downloadDocument(
+            @PathVariable Long id,
+            @RequestHeader HttpHeaders headers) {
+
+        DocumentFileDTO file = documentService.downloadDocument(id);
+        return DocumentDownloadResponse.build(file, headers);
+    }
+
+    @GetMapping("/documents/{id}/download-url")
+    public ResponseEntity<SignedUrlDTO> getDownloadUrl(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetails userDetails) {
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-        headers.setContentDispositionFormData("attachment", document.getNomFichierOriginal());
+        CustomUserDetails customUserDetails = (CustomUserDetails) userDetails;
+        User comptable = customUserDetails.getUser();
+        SignedUrlDTO url = signedDownload.sign(id, comptable);
+        return ResponseEntity.ok(url);
+    }
 
-        return ResponseEntity.ok()
-                .headers(headers)
-                .body(fileContent);
+    @GetMapping("/documents/{id}/preview")
+    public ResponseEntity<Resource> previewDocument(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        CustomUserDetails customUserDetails = (CustomUserDetails) userDetails;
+        User user = customUserDetails.getUser();
+        DocumentFileDTO preview = documentPreview.getPreview(id, user);
+        return DocumentDownloadResponse.preview(preview);
     }
 }
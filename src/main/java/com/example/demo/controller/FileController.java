@@ -0,0 +1,31 @@
+package com.example.demo.controller;
+
+import com.example.demo.contract.SignedDownloadContract;
+import com.example.demo.dto.DocumentFileDTO;
+import com.example.demo.util.DocumentDownloadResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Downloads through signed links: the token is the only credential, so these requests skip
+ * the JWT filter and the user lookup, and serving them reads no database row.
+ */
+@RestController
+@RequestMapping("/api/files")
+@RequiredArgsConstructor
+public class FileController {
+
+    private final SignedDownloadContract signedDownload;
+
+    @GetMapping("/{token}")
+    public ResponseEntity<Resource> download(
+            @PathVariable String token,
+            @RequestHeader HttpHeaders headers) {
+
+        DocumentFileDTO file = signedDownload.resolve(token);
+        return DocumentDownloadResponse.build(file, headers);
+    }
+}
@@ -1,12 +1,30 @@
 package com.example.demo.controller;
 
+import com.example.demo.contract.ChunkedUploadContract;
+import com.example.demo.contract.DocumentExportContract;
+import com.example.demo.contract.DocumentIngestContract;
+import com.example.demo.contract.DocumentPreviewContract;
+import com.example.demo.contract.DocumentSearchIndexContract;
 import com.example.demo.contract.DocumentServiceContract;
+import com.example.demo.contract.SignedDownloadContract;
+import com.example.demo.dto.DocumentBatchManifestDTO;
+import com.example.demo.dto.DocumentBatchResultDTO;
+import com.example.demo.dto.DocumentFileDTO;
+import com.example.demo.dto.DocumentPageDTO;
 import com.example.demo.dto.DocumentResponseDTO;
+import com.example.demo.dto.DocumentSearchDTO;
 import com.example.demo.dto.DocumentUploadDTO;
+import com.example.demo.dto.IngestStatusDTO;
+import com.example.demo.dto.SignedUrlDTO;
+import com.example.demo.dto.UploadSessionDTO;
+import com.example.demo.dto.UploadSessionRequestDTO;
 import com.example.demo.entity.User;
 import com.example.demo.security.CustomUserDetails;
+import com.example.demo.util.DocumentDownloadResponse;
+import com.example.demo.util.DocumentMetadataResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -16,6 +34,8 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -24,6 +44,12 @@ import java.util.List;
 public class SocieteController {
 
     private final DocumentServiceContract documentService;
+    private final DocumentPreviewContract documentPreview;
+    private final DocumentExportContract documentExport;
+    private final SignedDownloadContract signedDownload;
+    private final DocumentIngestContract documentIngest;
+    private final ChunkedUploadContract chunkedUpload;
+    private final DocumentSearchIndexContract documentSearchIndex;
 
     @GetMapping("/info")
     public ResponseEntity<String> getSocieteInfo() {
@@ -43,9 +69,102 @@ public class SocieteController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping(value = "/documents/upload/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<DocumentBatchResultDTO> uploadDocuments(
+            @Valid @RequestPart("manifest") DocumentBatchManifestDTO manifest,
+            @RequestPart("files") List<MultipartFile> files,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        CustomUserDetails customUserDetails = (CustomUserDetails) userDetails;
+        User user = customUserDetails.getUser();
+        DocumentBatchResultDTO response = documentService.uploadDocuments(manifest.getDocuments(), files, user);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping(value = "/documents/upload/async", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<IngestStatusDTO> uploadDocumentAsync(
+            @Valid @ModelAttribute DocumentUploadDTO dto,
+            @RequestParam("file") MultipartFile file,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        CustomUserDetails customUserDetails = (CustomUserDetails) userDetails;
+        User user = customUserDetails.getUser();
+        IngestStatusDTO status = documentIngest.submit(dto, file, user);
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/societe/documents/ingest/" + status.getTrackingId()))
+                .body(status);
+    }
+
+    @GetMapping("/documents/ingest/{trackingId}")
+    public ResponseEntity<IngestStatusDTO> getIngestStatus(
+            @PathVariable String trackingId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        CustomUserDetails customUserDetails = (CustomUserDetails) userDetails;
+        User user = customUserDetails.getUser();
+
+        return ResponseEntity.ok(documentIngest.getStatus(trackingId, user));
+    }
+
+    @PostMapping("/documents/uploads")
+    public ResponseEntity<UploadSessionDTO> createUploadSession(
+            @Valid @RequestBody UploadSessionRequestDTO request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        CustomUserDetails customUserDetails = (CustomUserDetails) userDetails;
+        User user = customUserDetails.getUser();
+        UploadSessionDTO session = chunkedUpload.createSession(request, user);
+
+        return ResponseEntity.created(URI.create("/api/societe/documents/uploads/" + session.getSessionId()))
+                .body(session);
+    }
+
+    @GetMapping("/documents/uploads/{sessionId}")
+    public ResponseEntity<UploadSessionDTO> getUploadSession(
+            @PathVariable String sessionId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        CustomUserDetails customUserDetails = (CustomUserDetails) userDetails;
+        User user = customUserDetails.getUser();
+
+        return ResponseEntity.ok(chunkedUpload.getSession(sessionId, user));
+    }
+
+    @PatchMapping(value = "/documents/uploads/{sessionId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UploadSessionDTO> uploadChunk(
+            @PathVariable String sessionId,
+            @RequestHeader("Upload-Offset") long offset,
+            InputStream chunk,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        CustomUserDetails customUserDetails = (CustomUserDetails) userDetails;
+        User user = customUserDetails.getUser();
+        UploadSessionDTO session = chunkedUpload.appendChunk(sessionId, offset, chunk, user);
+
+        return ResponseEntity.ok()
+                .header("Upload-Offset", String.valueOf(session.getOffset()))
+                .body(session);
+    }
+
+    @PostMapping("/documents/uploads/{sessionId}/complete")
+    public ResponseEntity<DocumentResponseDTO> completeUploadSession(
+            @PathVariable String sessionId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        CustomUserDetails customUserDetails = (CustomUserDetails) userDetails;
+        User user = customUserDetails.getUser();
+        DocumentResponseDTO response = chunkedUpload.complete(sessionId, user);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
     @GetMapping("/documents/exercice/{exercice}")
-    public ResponseEntity<List<DocumentResponseDTO>> getDocumentsByExercice(
+    public ResponseEntity<DocumentPageDTO> getDocumentsByExercice(
             @PathVariable Integer exercice,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
             @AuthenticationPrincipal UserDetails userDetails) {
 
         CustomUserDetails customUserDetails = (CustomUserDetails) userDetails;
@@ -54,14 +173,51 @@ public class SocieteController {
             return ResponseEntity.badRequest().build();
         }
 
-        List<DocumentResponseDTO> documents = documentService.getDocumentsBySocieteAndExercice(
-                user.getSociete().getId(), exercice);
+        DocumentPageDTO documents = documentService.getDocumentsBySocieteAndExercice(
+                user.getSociete().getId(), exercice, cursor, size);
 
         return ResponseEntity.ok(documents);
     }
 
+    @GetMapping("/documents/exercice/{exercice}/export")
+    public ResponseEntity<Resource> exportExercice(
+            @PathVariable Integer exercice,
+            @RequestHeader HttpHeaders headers,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        CustomUserDetails customUserDetails = (CustomUserDetails) userDetails;
+        User user = customUserDetails.getUser();
+        if (user.getSociete() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        DocumentFileDTO archive = documentExport.exportExercice(user.getSociete().getId(), exercice);
+        return DocumentDownloadResponse.build(archive, headers);
+    }
+
     @GetMapping("/documents")
-    public ResponseEntity<List<DocumentResponseDTO>> getAllMyDocuments(
+    public ResponseEntity<DocumentPageDTO> getAllMyDocuments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        CustomUserDetails customUserDetails = (CustomUserDetails) userDetails;
+        User user = customUserDetails.getUser();
+        if (user.getSociete() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        DocumentPageDTO documents = documentService.getDocumentsBySociete(
+                user.getSociete().getId(), cursor, size);
+
+        return ResponseEntity.ok(documents);
+    }
+
+    @GetMapping("/documents/filter")
+    public ResponseEntity<DocumentPageDTO> searchMyDocuments(
+            DocumentSearchDTO criteria,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
             @AuthenticationPrincipal UserDetails userDetails) {
 
         CustomUserDetails customUserDetails = (CustomUserDetails) userDetails;
@@ -70,29 +226,62 @@ public class SocieteController {
             return ResponseEntity.badRequest().build();
         }
 
-        List<DocumentResponseDTO> documents = documentService.getDocumentsBySociete(
-                user.getSociete().getId());
+        criteria.setSocieteId(user.getSociete().getId());
+        DocumentPageDTO documents = documentService.searchDocuments(criteria, cursor, size);
 
         return ResponseEntity.ok(documents);
     }
 
+    @GetMapping("/documents/search")
+    public ResponseEntity<DocumentPageDTO> fullTextSearch(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        CustomUserDetails customUserDetails = (CustomUserDetails) userDetails;
+        User user = customUserDetails.getUser();
+        if (user.getSociete() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        DocumentPageDTO documents = documentSearchIndex.search(q, user.getSociete().getId(), size);
+        return ResponseEntity.ok(documents);
+    }
+
     @GetMapping("/documents/{id}")
     public ResponseEntity<DocumentResponseDTO> getDocument(@PathVariable Long id) {
         DocumentResponseDTO document = documentService.getDocumentById(id);
-        return ResponseEntity.ok(document);
+        return DocumentMetadataResponse.build(document);
     }
 
     @GetMapping("/documents/{id}/download")
-    public ResponseEntity<byte[]> downloadDocument(@PathVariable Long id) {
-        byte[] fileContent = documentService.downloadDocument(id);
-        DocumentResponseDTO document = documentService.getDocumentById(id);
+    public ResponseEntity<Resource> downloadDocument(
+            @PathVariable Long id,
+            @RequestHeader HttpHeaders headers) {
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-        headers.setContentDispositionFormData("attachment", document.getNomFichierOriginal());
+        DocumentFileDTO file = documentService.downloadDocument(id);
+        return DocumentDownloadResponse.build(file, headers);
+    }
 
-        return ResponseEntity.ok()
-                .headers(headers)
-                .body(fileContent);
+    @GetMapping("/documents/{id}/download-url")
+    public ResponseEntity<SignedUrlDTO> getDownloadUrl(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        CustomUserDetails customUserDetails = (CustomUserDetails) userDetails;
+        User user = customUserDetails.getUser();
+        SignedUrlDTO url = signedDownload.sign(id, user);
+        return ResponseEntity.ok(url);
+    }
+
+    @GetMapping("/documents/{id}/preview")
+    public ResponseEntity<Resource> previewDocument(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        CustomUserDetails customUserDetails = (CustomUserDetails) userDetails;
+        User user = customUserDetails.getUser();
+        DocumentFileDTO preview = documentPreview.getPreview(id, user);
+        return DocumentDownloadResponse.preview(preview);
     }
 }
@@ -0,0 +1,18 @@
+package com.example.demo.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentBatchItemResultDTO {
+
+    private int index;
+    private String numeroPiece;
+    private String nomFichierOriginal;
+    private boolean success;
+    private DocumentResponseDTO document;
+    private String code;
+    private String message;
+}
@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentBatchManifestDTO {
+
+    @NotEmpty(message = "Le manifeste doit contenir au moins un document")
+    @Size(max = 200, message = "Un lot ne peut pas dépasser 200 documents")
+    @Valid
+    private List<DocumentUploadDTO> documents;
+}
@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentBatchResultDTO {
+
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<DocumentBatchItemResultDTO> items;
+}
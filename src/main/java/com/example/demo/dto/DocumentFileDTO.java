@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import lombok.*;
+import org.springframework.core.io.Resource;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentFileDTO {
+
+    private Resource resource;
+    private String nomFichierOriginal;
+    private long contentLength;
+    private long lastModified;
+    private String etag;
+    // Content will not change anymore under this URL, so clients may cache it without revalidating
+    private boolean immutable;
+    // End of validity (epoch millis) of a shared link to the file; null for authenticated downloads
+    private Long expiresAt;
+}
@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentPageDTO {
+
+    private List<DocumentResponseDTO> items;
+    private int size;
+    // Token for the next page, null on the last page
+    private String nextCursor;
+}
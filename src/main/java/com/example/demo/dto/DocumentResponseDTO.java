@@ -22,6 +22,8 @@ public class DocumentResponseDTO {
     private BigDecimal montant;
     private String fournisseur;
     private String nomFichierOriginal;
+    private String empreinteSha256;
+    private Long tailleFichier;
     private Document.StatutDocument statut;
     private LocalDateTime dateValidation;
     private String commentaireComptable;
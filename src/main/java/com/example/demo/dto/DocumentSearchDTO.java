@@ -0,0 +1,53 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.Document;
+import lombok.*;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Optional search criteria, bound from query parameters. Criteria left null are ignored.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentSearchDTO {
+
+    // Forced to the caller's own société on the société side
+    private Long societeId;
+    private Integer exercice;
+    private Document.StatutDocument statut;
+    private Document.TypeDocument typeDocument;
+    private String categorieComptable;
+    // Case-insensitive fragment of the supplier name
+    private String fournisseur;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dateDebut;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dateFin;
+
+    private BigDecimal montantMin;
+    private BigDecimal montantMax;
+
+    @Builder.Default
+    private Tri tri = Tri.DATE_CREATION;
+
+    @Builder.Default
+    private Sens sens = Sens.ASC;
+
+    public enum Tri {
+        DATE_CREATION,
+        DATE_PIECE,
+        MONTANT
+    }
+
+    public enum Sens {
+        ASC,
+        DESC
+    }
+}
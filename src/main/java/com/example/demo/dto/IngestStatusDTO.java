@@ -0,0 +1,28 @@
+package com.example.demo.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class IngestStatusDTO {
+
+    private String trackingId;
+    private StatutIngestion statut;
+    private String nomFichierOriginal;
+    private DocumentResponseDTO document;
+    private String code;
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+
+    public enum StatutIngestion {
+        EN_ATTENTE,
+        EN_COURS,
+        TERMINE,
+        ECHEC
+    }
+}
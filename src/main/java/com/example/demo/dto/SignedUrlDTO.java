@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SignedUrlDTO {
+
+    private String url;
+    private LocalDateTime expiresAt;
+}
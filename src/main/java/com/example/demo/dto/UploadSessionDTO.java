@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSessionDTO {
+
+    private String sessionId;
+    private String nomFichierOriginal;
+    private long tailleFichier;
+    private long offset;
+    private boolean complete;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,27 @@
+package com.example.demo.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSessionRequestDTO {
+
+    @NotNull(message = "Les métadonnées du document sont obligatoires")
+    @Valid
+    private DocumentUploadDTO document;
+
+    @NotBlank(message = "Le nom du fichier est obligatoire")
+    private String nomFichierOriginal;
+
+    private String contentType;
+
+    @NotNull(message = "La taille du fichier est obligatoire")
+    @Positive(message = "La taille du fichier doit être supérieure à 0")
+    private Long tailleFichier;
+}
@@ -8,7 +8,17 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "documents")
+// Each index leads with the listing or search filters and ends with a keyset order (sort key, id),
+// so a page is an index range read without a sort
+@Table(name = "documents", indexes = {
+        @Index(name = "idx_documents_societe_exercice", columnList = "societe_id, exerciceComptable, createdAt, id"),
+        @Index(name = "idx_documents_statut_exercice", columnList = "statut, exerciceComptable, createdAt, id"),
+        @Index(name = "idx_documents_societe_statut", columnList = "societe_id, statut, createdAt, id"),
+        @Index(name = "idx_documents_societe_created_at", columnList = "societe_id, createdAt, id"),
+        @Index(name = "idx_documents_statut_created_at", columnList = "statut, createdAt, id"),
+        @Index(name = "idx_documents_societe_date_piece", columnList = "societe_id, datePiece, id"),
+        @Index(name = "idx_documents_societe_montant", columnList = "societe_id, montant, id")
+}, uniqueConstraints = @UniqueConstraint(name = Document.NUMERO_PIECE_CONSTRAINT, columnNames = "numeroPiece"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,11 +26,15 @@ import java.time.LocalDateTime;
 @Builder
 public class Document {
 
+    public static final String NUMERO_PIECE_CONSTRAINT = "uk_documents_numero_piece";
+
+    // Sequence ids (pooled by 50) keep JDBC insert batching possible, IDENTITY disables it
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "documents_seq")
+    @SequenceGenerator(name = "documents_seq", sequenceName = "documents_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String numeroPiece;
 
     @Enumerated(EnumType.STRING)
@@ -45,6 +59,15 @@ public class Document {
     @Column(nullable = false)
     private String nomFichierOriginal;
 
+    @Column(length = 64)
+    private String empreinteSha256;
+
+    private Long tailleFichier;
+
+    // Digest of the upload as received, kept when image normalization retains the original
+    @Column(length = 64)
+    private String empreinteOriginale;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private StatutDocument statut;
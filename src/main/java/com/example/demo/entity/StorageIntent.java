@@ -0,0 +1,39 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Intent log entry: written (and committed) before an object is put in storage, and deleted
+ * in the transaction that records the blob. An entry that outlives its upload points to an
+ * object nothing references.
+ */
+@Entity
+@Table(name = "storage_intents", indexes = {
+        @Index(name = "idx_storage_intents_created_at", columnList = "createdAt"),
+        @Index(name = "idx_storage_intents_chemin", columnList = "cheminFichier")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StorageIntent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String cheminFichier;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the online storage migration (single row), so a restart resumes where the
+ * previous run stopped instead of scanning every document and blob again.
+ */
+@Entity
+@Table(name = "storage_migration_state")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StorageMigrationState {
+
+    public static final Long ID = 1L;
+
+    public enum Phase {
+        LEGACY, BLOBS, CRC, FINISHED
+    }
+
+    @Id
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Phase phase;
+
+    // Last document or blob id handled in the current phase
+    @Column(nullable = false)
+    private long lastId;
+
+    private LocalDateTime updatedAt;
+
+    public static StorageMigrationState start() {
+        return StorageMigrationState.builder()
+                .id(ID)
+                .phase(Phase.LEGACY)
+                .lastId(0)
+                .build();
+    }
+
+    /**
+     * Move on to the next phase, starting from its first row
+     */
+    public void nextPhase() {
+        phase = Phase.values()[Math.min(phase.ordinal() + 1, Phase.FINISHED.ordinal())];
+        lastId = 0;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
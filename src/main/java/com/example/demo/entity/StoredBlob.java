@@ -0,0 +1,61 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stored_blobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoredBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String empreinteSha256;
+
+    @Column(nullable = false)
+    private String cheminFichier;
+
+    // Size of the original content, as served on download
+    @Column(nullable = false)
+    private Long tailleFichier;
+
+    // CRC-32 of the original content (needed up front by the ZIP export); null for older blobs
+    private Long crc32;
+
+    // Codec of the stored bytes; null for blobs written before compression existed
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private Compression compression;
+
+    // Size of the stored bytes, smaller than tailleFichier when compressed
+    private Long tailleStockee;
+
+    @Column(nullable = false)
+    private Integer nombreReferences;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public boolean isCompressed() {
+        return compression != null && compression != Compression.NONE;
+    }
+
+    public enum Compression {
+        NONE,
+        DEFLATE
+    }
+}
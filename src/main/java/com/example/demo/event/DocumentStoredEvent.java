@@ -0,0 +1,12 @@
+package com.example.demo.event;
+
+import com.example.demo.entity.Document;
+
+/**
+ * Published when a new document and its content have been saved.
+ *
+ * @param documentId   Id of the saved document
+ * @param typeDocument Type of the document
+ */
+public record DocumentStoredEvent(Long documentId, Document.TypeDocument typeDocument) {
+}
@@ -0,0 +1,9 @@
+package com.example.demo.event;
+
+/**
+ * Published when a comptable has validated or rejected a document.
+ *
+ * @param documentId Id of the processed document
+ */
+public record DocumentValidatedEvent(Long documentId) {
+}
@@ -0,0 +1,8 @@
+package com.example.demo.exception;
+
+public class ConflictException extends BusinessException {
+
+    public ConflictException(String code, String message) {
+        super(code, message);
+    }
+}
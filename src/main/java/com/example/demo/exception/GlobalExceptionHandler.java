@@ -1,12 +1,17 @@
 package com.example.demo.exception;
 
 import com.example.demo.dto.ErrorResponse;
+import com.example.demo.entity.Document;
 import com.example.demo.util.AppLogger;
+import com.example.demo.util.ConstraintViolations;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.SignatureException;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -56,6 +61,51 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
 
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ErrorResponse> handleConflictException(
+            ConflictException ex, HttpServletRequest request) {
+
+        AppLogger.warn(String.format("Conflict: %s - %s", ex.getCode(), ex.getMessage()));
+
+        ErrorResponse error = ErrorResponse.of(
+                HttpStatus.CONFLICT.value(),
+                "Conflit",
+                ex.getMessage(),
+                ex.getCode(),
+                request.getRequestURI());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolationException(
+            DataIntegrityViolationException ex, HttpServletRequest request) {
+
+        AppLogger.warn(String.format("Data integrity violation: %s", ex.getMostSpecificCause().getMessage()));
+
+        // Two nodes can accept the same numéro de pièce (their indexes and reservations are local);
+        // the unique constraint settles it and the loser gets the usual duplicate error
+        if (ConstraintViolations.violates(ex, Document.NUMERO_PIECE_CONSTRAINT)) {
+            ErrorResponse error = ErrorResponse.of(
+                    HttpStatus.BAD_REQUEST.value(),
+                    "Erreur métier",
+                    "Un document avec ce numéro de pièce existe déjà",
+                    "DUPLICATE_DOCUMENT",
+                    request.getRequestURI());
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+
+        ErrorResponse error = ErrorResponse.of(
+                HttpStatus.CONFLICT.value(),
+                "Conflit",
+                "La ressource existe déjà ou a été modifiée simultanément",
+                "DATA_CONFLICT",
+                request.getRequestURI());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationException(
             MethodArgumentNotValidException ex, HttpServletRequest request) {
@@ -98,6 +148,42 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONTENT_TOO_LARGE).body(error);
     }
 
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleTaskRejectedException(
+            TaskRejectedException ex, HttpServletRequest request) {
+
+        AppLogger.warn("Ingest queue is full, upload rejected");
+
+        ErrorResponse error = ErrorResponse.of(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service surchargé",
+                "Trop de documents en cours de traitement. Veuillez réessayer plus tard.",
+                "INGEST_QUEUE_FULL",
+                request.getRequestURI());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(error);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequestsException(
+            TooManyRequestsException ex, HttpServletRequest request) {
+
+        AppLogger.warn(String.format("Too many requests: %s", ex.getCode()));
+
+        ErrorResponse error = ErrorResponse.of(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Trop de requêtes",
+                ex.getMessage(),
+                ex.getCode(),
+                request.getRequestURI());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<ErrorResponse> handleBadCredentials(
             BadCredentialsException ex, HttpServletRequest request) {
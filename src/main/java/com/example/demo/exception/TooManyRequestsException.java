@@ -0,0 +1,14 @@
+package com.example.demo.exception;
+
+import lombok.Getter;
+
+@Getter
+public class TooManyRequestsException extends BusinessException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String code, String message, long retryAfterSeconds) {
+        super(code, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
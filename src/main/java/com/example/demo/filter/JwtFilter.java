@@ -46,7 +46,7 @@ public class JwtFilter extends OncePerRequestFilter {
         try {
             String path = request.getRequestURI();
 
-            boolean isPermitted = Routes.open_routes.stream().anyMatch(path::startsWith);
+            boolean isPermitted = Routes.open_routes.stream().anyMatch(route -> matches(route, path));
             if (isPermitted) {
                 filterChain.doFilter(request, response);
                 return;
@@ -73,6 +73,18 @@ public class JwtFilter extends OncePerRequestFilter {
         }
     }
 
+    /**
+     * Match a route on whole path segments: "/api/files/**" covers "/api/files" and
+     * "/api/files/abc" but not "/api/filesX".
+     */
+    static boolean matches(String route, String path) {
+        if (route.endsWith("/**")) {
+            String prefix = route.substring(0, route.length() - 3);
+            return path.equals(prefix) || path.startsWith(prefix + "/");
+        }
+        return path.equals(route);
+    }
+
     private void processToken(HttpServletRequest request) {
         String authHeader = request.getHeader("Authorization");
 
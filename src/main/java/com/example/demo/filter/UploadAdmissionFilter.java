@@ -0,0 +1,107 @@
+package com.example.demo.filter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.demo.contract.UploadAdmissionContract;
+import com.example.demo.entity.Societe;
+import com.example.demo.exception.TooManyRequestsException;
+import com.example.demo.security.CustomUserDetails;
+import com.example.demo.service.DocumentService;
+import com.example.demo.util.AppLogger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Admission control for upload requests, applied before the multipart body is read so a
+ * société over its limits gets a 429 without holding a worker thread for the transfer.
+ */
+@Component
+@RequiredArgsConstructor
+public class UploadAdmissionFilter extends OncePerRequestFilter {
+
+    private static final List<String> UPLOAD_POST_ROUTES = List.of(
+            "/api/societe/documents/upload",
+            "/api/societe/documents/upload/batch",
+            "/api/societe/documents/upload/async");
+
+    private static final String CHUNK_PATCH_ROUTE = "/api/societe/documents/uploads/";
+
+    private final UploadAdmissionContract uploadAdmission;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String ice = isUpload(request) ? currentSocieteIce() : null;
+        if (ice == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Bodies of unknown length are charged as one file of the maximum size
+        long bytes = request.getContentLengthLong() >= 0 ? request.getContentLengthLong() : DocumentService.MAX_FILE_SIZE;
+        try {
+            uploadAdmission.acquire(ice, bytes);
+        } catch (TooManyRequestsException e) {
+            AppLogger.warn(String.format("Upload throttled for societe %s: %s", ice, e.getCode()));
+            sendThrottledResponse(response, e, request.getRequestURI());
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            uploadAdmission.release(ice);
+        }
+    }
+
+    private boolean isUpload(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return ("POST".equals(request.getMethod()) && UPLOAD_POST_ROUTES.contains(path))
+                || ("PATCH".equals(request.getMethod()) && path.startsWith(CHUNK_PATCH_ROUTE));
+    }
+
+    private String currentSocieteIce() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof CustomUserDetails userDetails) {
+            Societe societe = userDetails.getUser().getSociete();
+            return societe != null ? societe.getIce() : null;
+        }
+        return null;
+    }
+
+    private void sendThrottledResponse(HttpServletResponse response, TooManyRequestsException e, String path)
+            throws IOException {
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", java.time.LocalDateTime.now().toString());
+        errorResponse.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        errorResponse.put("error", "Trop de requêtes");
+        errorResponse.put("message", e.getMessage());
+        errorResponse.put("code", e.getCode());
+        errorResponse.put("path", path);
+
+        objectMapper.writeValue(response.getWriter(), errorResponse);
+    }
+}
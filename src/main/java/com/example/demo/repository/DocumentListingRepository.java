@@ -0,0 +1,24 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.DocumentResponseDTO;
+import com.example.demo.entity.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Read-only listing queries that select response columns directly instead of hydrating
+ * {@link Document} entities.
+ */
+public interface DocumentListingRepository {
+
+    /**
+     * One keyset page of documents, built from a single select joined to the société and user names.
+     *
+     * @param filter Listing criteria, including the keyset position
+     * @param order  Keyset order, see {@link DocumentSpecifications#keysetOrder}
+     * @param limit  Maximum number of documents to return
+     */
+    List<DocumentResponseDTO> findPage(Specification<Document> filter, Sort order, int limit);
+}
@@ -0,0 +1,61 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.DocumentResponseDTO;
+import com.example.demo.entity.Document;
+import com.example.demo.entity.Societe;
+import com.example.demo.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+class DocumentListingRepositoryImpl implements DocumentListingRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<DocumentResponseDTO> findPage(Specification<Document> filter, Sort order, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<DocumentResponseDTO> query = cb.createQuery(DocumentResponseDTO.class);
+        Root<Document> document = query.from(Document.class);
+        Join<Document, Societe> societe = document.join("societe");
+        Join<Document, User> uploadedBy = document.join("uploadedBy");
+        Join<Document, User> validatedBy = document.join("validatedBy", JoinType.LEFT);
+
+        // Arguments follow the field order of DocumentResponseDTO's all-args constructor
+        query.select(cb.construct(DocumentResponseDTO.class,
+                document.get("id"),
+                document.get("numeroPiece"),
+                document.get("typeDocument"),
+                document.get("cheminFichier"),
+                document.get("categorieComptable"),
+                document.get("datePiece"),
+                document.get("montant"),
+                document.get("fournisseur"),
+                document.get("nomFichierOriginal"),
+                document.get("empreinteSha256"),
+                document.get("tailleFichier"),
+                document.get("statut"),
+                document.get("dateValidation"),
+                document.get("commentaireComptable"),
+                societe.get("raisonSociale"),
+                uploadedBy.get("fullName"),
+                validatedBy.get("fullName"),
+                document.get("exerciceComptable"),
+                document.get("createdAt"),
+                document.get("updatedAt")));
+        query.where(filter.toPredicate(document, query, cb));
+        query.orderBy(QueryUtils.toOrders(order, document, cb));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
@@ -2,12 +2,26 @@ package com.example.demo.repository;
 
 import com.example.demo.entity.Document;
 import com.example.demo.entity.Societe;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
-public interface DocumentRepository extends JpaRepository<Document, Long> {
+public interface DocumentRepository extends JpaRepository<Document, Long>, JpaSpecificationExecutor<Document>,
+        DocumentListingRepository {
 
     List<Document> findBySocieteAndExerciceComptable(Societe societe, Integer exerciceComptable);
 
@@ -17,7 +31,35 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
 
     Optional<Document> findByNumeroPiece(String numeroPiece);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Document d WHERE d.id = :id")
+    Optional<Document> findByIdForUpdate(@Param("id") Long id);
+
+    boolean existsByNumeroPiece(String numeroPiece);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT d.numeroPiece FROM Document d")
+    Stream<String> streamAllNumeroPieces();
+
+    @Query("SELECT d.numeroPiece FROM Document d WHERE d.numeroPiece IN :numerosPiece")
+    Set<String> findExistingNumeroPieces(@Param("numerosPiece") Collection<String> numerosPiece);
+
     List<Document> findBySociete(Societe societe);
 
     List<Document> findByStatutAndExerciceComptable(Document.StatutDocument statut, Integer exerciceComptable);
+
+    List<Document> findByEmpreinteSha256IsNullAndIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<Document> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Document d SET d.cheminFichier = :chemin, d.empreinteSha256 = :empreinte, "
+            + "d.tailleFichier = :taille, d.updatedAt = LOCAL DATETIME WHERE d.id = :id")
+    int updateStockage(@Param("id") Long id, @Param("chemin") String chemin,
+            @Param("empreinte") String empreinte, @Param("taille") Long taille);
+
+    @Modifying
+    @Query("UPDATE Document d SET d.cheminFichier = :chemin, d.updatedAt = LOCAL DATETIME "
+            + "WHERE d.empreinteSha256 = :empreinte")
+    int updateCheminFichierByEmpreinte(@Param("empreinte") String empreinte, @Param("chemin") String chemin);
 }
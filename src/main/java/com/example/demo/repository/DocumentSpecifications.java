@@ -0,0 +1,149 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.DocumentSearchDTO;
+import com.example.demo.entity.Document;
+import com.example.demo.entity.Societe;
+import com.example.demo.util.DocumentCursor;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class DocumentSpecifications {
+
+    private DocumentSpecifications() {
+    }
+
+    public static Specification<Document> hasSociete(Societe societe) {
+        return (root, query, cb) -> cb.equal(root.get("societe"), societe);
+    }
+
+    public static Specification<Document> hasSocieteId(Long societeId) {
+        return (root, query, cb) -> cb.equal(root.get("societe").get("id"), societeId);
+    }
+
+    public static Specification<Document> hasIdIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static Specification<Document> hasExercice(Integer exercice) {
+        return (root, query, cb) -> cb.equal(root.get("exerciceComptable"), exercice);
+    }
+
+    public static Specification<Document> hasStatut(Document.StatutDocument statut) {
+        return (root, query, cb) -> cb.equal(root.get("statut"), statut);
+    }
+
+    public static Specification<Document> hasTypeDocument(Document.TypeDocument typeDocument) {
+        return (root, query, cb) -> cb.equal(root.get("typeDocument"), typeDocument);
+    }
+
+    public static Specification<Document> hasCategorieComptable(String categorieComptable) {
+        return (root, query, cb) -> cb.equal(root.get("categorieComptable"), categorieComptable);
+    }
+
+    public static Specification<Document> fournisseurContains(String fragment) {
+        String pattern = "%" + fragment.toLowerCase()
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("fournisseur")), pattern, '\\');
+    }
+
+    public static Specification<Document> datePieceBetween(LocalDate debut, LocalDate fin) {
+        return (root, query, cb) -> between(cb, root.get("datePiece"), debut, fin);
+    }
+
+    public static Specification<Document> montantBetween(BigDecimal min, BigDecimal max) {
+        return (root, query, cb) -> between(cb, root.get("montant"), min, max);
+    }
+
+    /**
+     * All the criteria that are set, combined with AND.
+     */
+    public static Specification<Document> matching(DocumentSearchDTO criteria) {
+        List<Specification<Document>> specifications = new ArrayList<>();
+        if (criteria.getSocieteId() != null) {
+            specifications.add(hasSocieteId(criteria.getSocieteId()));
+        }
+        if (criteria.getExercice() != null) {
+            specifications.add(hasExercice(criteria.getExercice()));
+        }
+        if (criteria.getStatut() != null) {
+            specifications.add(hasStatut(criteria.getStatut()));
+        }
+        if (criteria.getTypeDocument() != null) {
+            specifications.add(hasTypeDocument(criteria.getTypeDocument()));
+        }
+        if (criteria.getCategorieComptable() != null && !criteria.getCategorieComptable().isBlank()) {
+            specifications.add(hasCategorieComptable(criteria.getCategorieComptable()));
+        }
+        if (criteria.getFournisseur() != null && !criteria.getFournisseur().isBlank()) {
+            specifications.add(fournisseurContains(criteria.getFournisseur().trim()));
+        }
+        if (criteria.getDateDebut() != null || criteria.getDateFin() != null) {
+            specifications.add(datePieceBetween(criteria.getDateDebut(), criteria.getDateFin()));
+        }
+        if (criteria.getMontantMin() != null || criteria.getMontantMax() != null) {
+            specifications.add(montantBetween(criteria.getMontantMin(), criteria.getMontantMax()));
+        }
+        return Specification.allOf(specifications);
+    }
+
+    /**
+     * Order of a keyset listing: the sort key, then the id to break ties, both in the same direction.
+     */
+    public static Sort keysetOrder(DocumentSearchDTO.Tri tri, DocumentSearchDTO.Sens sens) {
+        Sort.Direction direction = sens == DocumentSearchDTO.Sens.DESC ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return Sort.by(direction, attribute(tri), "id");
+    }
+
+    /**
+     * Documents after a keyset position in {@link #keysetOrder} order, i.e. for an ascending sort
+     * {@code key > :key OR (key = :key AND id > :id)}
+     *
+     * @param cursor Position of the last document already returned, or null for the first page
+     * @param sens   Direction of the listing
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Document> after(DocumentCursor cursor, DocumentSearchDTO.Sens sens) {
+        return (root, query, cb) -> {
+            if (cursor == null) {
+                return cb.conjunction();
+            }
+            boolean descending = sens == DocumentSearchDTO.Sens.DESC;
+            Expression key = root.get(attribute(cursor.tri()));
+            Comparable value = cursor.key();
+            Expression<Long> id = root.get("id");
+            return cb.or(
+                    descending ? cb.lessThan(key, value) : cb.greaterThan(key, value),
+                    cb.and(
+                            cb.equal(key, value),
+                            descending ? cb.lessThan(id, cursor.id()) : cb.greaterThan(id, cursor.id())));
+        };
+    }
+
+    private static String attribute(DocumentSearchDTO.Tri tri) {
+        return switch (tri) {
+            case DATE_CREATION -> "createdAt";
+            case DATE_PIECE -> "datePiece";
+            case MONTANT -> "montant";
+        };
+    }
+
+    private static <Y extends Comparable<? super Y>> Predicate between(CriteriaBuilder cb,
+            Expression<Y> path, Y min, Y max) {
+        if (min == null) {
+            return cb.lessThanOrEqualTo(path, max);
+        }
+        if (max == null) {
+            return cb.greaterThanOrEqualTo(path, min);
+        }
+        return cb.between(path, min, max);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.StorageIntent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+public interface StorageIntentRepository extends JpaRepository<StorageIntent, Long> {
+
+    List<StorageIntent> findByCreatedAtBeforeOrderByIdAsc(LocalDateTime createdAt, Pageable pageable);
+
+    @Query("SELECT i.cheminFichier FROM StorageIntent i WHERE i.cheminFichier IN :chemins")
+    Set<String> findPendingChemins(@Param("chemins") Collection<String> chemins);
+}
@@ -0,0 +1,7 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.StorageMigrationState;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StorageMigrationStateRepository extends JpaRepository<StorageMigrationState, Long> {
+}
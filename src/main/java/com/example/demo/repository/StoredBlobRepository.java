@@ -0,0 +1,56 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.StoredBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, Long> {
+
+    Optional<StoredBlob> findByEmpreinteSha256(String empreinteSha256);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM StoredBlob b WHERE b.empreinteSha256 = :empreinte")
+    Optional<StoredBlob> findByEmpreinteSha256ForUpdate(@Param("empreinte") String empreinte);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM StoredBlob b WHERE b.id = :id")
+    Optional<StoredBlob> findByIdForUpdate(@Param("id") Long id);
+
+    List<StoredBlob> findByEmpreinteSha256In(Collection<String> empreintes);
+
+    List<StoredBlob> findByCrc32IsNullAndIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<StoredBlob> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    boolean existsByCheminFichier(String cheminFichier);
+
+    @Query("SELECT b.id FROM StoredBlob b WHERE b.nombreReferences <= 0 AND b.createdAt < :before "
+            + "AND b.id > :after ORDER BY b.id")
+    List<Long> findUnreferencedIds(@Param("before") LocalDateTime before, @Param("after") Long after,
+            Pageable pageable);
+
+    @Query("SELECT b.empreinteSha256 FROM StoredBlob b WHERE b.empreinteSha256 IN :empreintes")
+    Set<String> findExistingEmpreintes(@Param("empreintes") Collection<String> empreintes);
+
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.nombreReferences = b.nombreReferences - 1 WHERE b.id = :id")
+    int decrementReferences(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.crc32 = :crc32 WHERE b.id = :id")
+    int updateCrc32(@Param("id") Long id, @Param("crc32") Long crc32);
+
+    @Query("SELECT b.nombreReferences FROM StoredBlob b WHERE b.id = :id")
+    Integer findReferenceCount(@Param("id") Long id);
+}
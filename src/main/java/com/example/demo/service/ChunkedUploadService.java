@@ -0,0 +1,233 @@
+package com.example.demo.service;
+
+import com.example.demo.contract.ChunkedUploadContract;
+import com.example.demo.contract.DocumentServiceContract;
+import com.example.demo.dto.DocumentResponseDTO;
+import com.example.demo.dto.DocumentUploadDTO;
+import com.example.demo.dto.UploadSessionDTO;
+import com.example.demo.dto.UploadSessionRequestDTO;
+import com.example.demo.entity.User;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.exception.ConflictException;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.util.AppLogger;
+import com.example.demo.util.StagedMultipartFile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+public class ChunkedUploadService implements ChunkedUploadContract {
+
+    // Sessions without activity for this long are dropped with their partial file
+    private static final long SESSION_TTL_HOURS = 24;
+
+    private final DocumentServiceContract documentService;
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    @Value("${documents.chunked.dir:uploads/documents/chunked}")
+    private String chunkedDir;
+
+    @Override
+    public UploadSessionDTO createSession(UploadSessionRequestDTO request, User user) {
+        if (request.getTailleFichier() > DocumentService.MAX_FILE_SIZE) {
+            throw new BusinessException("FILE_TOO_LARGE",
+                    "La taille du fichier ne doit pas dépasser 10MB");
+        }
+
+        String sessionId = UUID.randomUUID().toString();
+        Path path;
+        try {
+            Path dir = Paths.get(chunkedDir);
+            Files.createDirectories(dir);
+            path = dir.resolve(sessionId).toAbsolutePath();
+            // Preallocate so every chunk is a positioned write into an existing file
+            try (RandomAccessFile raf = new RandomAccessFile(path.toFile(), "rw")) {
+                raf.setLength(request.getTailleFichier());
+            }
+        } catch (IOException e) {
+            throw new BusinessException("FILE_SAVE_ERROR",
+                    "Erreur lors de l'enregistrement du fichier: " + e.getMessage());
+        }
+
+        UploadSession session = new UploadSession(sessionId, user.getId(), request.getDocument(),
+                request.getNomFichierOriginal(), request.getContentType(), request.getTailleFichier(), path);
+        sessions.put(sessionId, session);
+
+        AppLogger.debug(String.format("Opened upload session %s (%d bytes)", sessionId, request.getTailleFichier()));
+        return toDTO(session);
+    }
+
+    @Override
+    public UploadSessionDTO getSession(String sessionId, User user) {
+        return toDTO(findSession(sessionId, user));
+    }
+
+    @Override
+    public UploadSessionDTO appendChunk(String sessionId, long offset, InputStream chunk, User user) {
+        UploadSession session = findSession(sessionId, user);
+
+        synchronized (session) {
+            if (offset != session.offset) {
+                throw new ConflictException("OFFSET_MISMATCH",
+                        String.format("Offset invalide: %d attendu, %d reçu", session.offset, offset));
+            }
+
+            session.lastActivity = LocalDateTime.now();
+            long position = session.offset;
+            boolean overflow = false;
+            try (FileChannel channel = FileChannel.open(session.path, StandardOpenOption.WRITE);
+                    ReadableByteChannel source = Channels.newChannel(chunk)) {
+                while (position < session.tailleFichier) {
+                    long transferred = channel.transferFrom(source, position, session.tailleFichier - position);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    position += transferred;
+                }
+                overflow = position == session.tailleFichier && chunk.read() != -1;
+            } catch (IOException e) {
+                // Bytes written before the failure stay valid, the client resumes from there
+                AppLogger.warn(String.format("Upload session %s interrupted at offset %d", sessionId, position));
+            }
+
+            if (overflow) {
+                // The whole chunk is rejected: drop what it wrote and keep the offset where it was
+                discardFrom(session, offset);
+                throw new BusinessException("CHUNK_OUT_OF_BOUNDS",
+                        "Le fragment dépasse la taille annoncée du fichier");
+            }
+            session.offset = position;
+        }
+
+        return toDTO(session);
+    }
+
+    @Override
+    public DocumentResponseDTO complete(String sessionId, User user) {
+        UploadSession session = findSession(sessionId, user);
+
+        synchronized (session) {
+            if (session.completing) {
+                throw new ConflictException("UPLOAD_COMPLETING", "La finalisation de cet upload est déjà en cours");
+            }
+            if (session.offset != session.tailleFichier) {
+                throw new ConflictException("UPLOAD_INCOMPLETE",
+                        String.format("Upload incomplet: %d/%d octets reçus", session.offset, session.tailleFichier));
+            }
+            session.completing = true;
+        }
+
+        DocumentResponseDTO response;
+        try {
+            StagedMultipartFile file = new StagedMultipartFile(
+                    session.path, session.nomFichierOriginal, session.contentType);
+            response = documentService.uploadDocument(session.document, file, user);
+        } catch (RuntimeException e) {
+            // The session and its file are kept, so the client can complete it again once fixed
+            synchronized (session) {
+                session.completing = false;
+                session.lastActivity = LocalDateTime.now();
+            }
+            throw e;
+        }
+
+        sessions.remove(sessionId);
+        deleteQuietly(session.path);
+        return response;
+    }
+
+    /**
+     * Truncate the spool file back to the given offset, then preallocate it again.
+     */
+    private void discardFrom(UploadSession session, long offset) {
+        try (RandomAccessFile raf = new RandomAccessFile(session.path.toFile(), "rw")) {
+            raf.setLength(offset);
+            raf.setLength(session.tailleFichier);
+        } catch (IOException e) {
+            // Stale bytes past the offset are overwritten when the client sends that range again
+            AppLogger.warn(String.format("Upload session %s not truncated to offset %d: %s",
+                    session.id, offset, e.getMessage()));
+        }
+    }
+
+    private UploadSession findSession(String sessionId, User user) {
+        UploadSession session = sessions.get(sessionId);
+        if (session == null || !session.userId.equals(user.getId())) {
+            throw new ResourceNotFoundException("Session d'upload", sessionId);
+        }
+        return session;
+    }
+
+    @Scheduled(fixedDelayString = "${documents.chunked.purge-interval-ms:600000}")
+    public void purgeExpiredSessions() {
+        LocalDateTime threshold = LocalDateTime.now().minusHours(SESSION_TTL_HOURS);
+        sessions.values().removeIf(session -> {
+            if (session.completing || session.lastActivity.isAfter(threshold)) {
+                return false;
+            }
+            deleteQuietly(session.path);
+            return true;
+        });
+    }
+
+    private UploadSessionDTO toDTO(UploadSession session) {
+        return UploadSessionDTO.builder()
+                .sessionId(session.id)
+                .nomFichierOriginal(session.nomFichierOriginal)
+                .tailleFichier(session.tailleFichier)
+                .offset(session.offset)
+                .complete(session.offset == session.tailleFichier)
+                .expiresAt(session.lastActivity.plusHours(SESSION_TTL_HOURS))
+                .build();
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            AppLogger.error(String.format("Failed to delete: %s", path.getFileName()));
+        }
+    }
+
+    private static class UploadSession {
+        private final String id;
+        private final Long userId;
+        private final DocumentUploadDTO document;
+        private final String nomFichierOriginal;
+        private final String contentType;
+        private final long tailleFichier;
+        private final Path path;
+        private volatile long offset;
+        private volatile LocalDateTime lastActivity = LocalDateTime.now();
+        private volatile boolean completing;
+
+        private UploadSession(String id, Long userId, DocumentUploadDTO document, String nomFichierOriginal,
+                String contentType, long tailleFichier, Path path) {
+            this.id = id;
+            this.userId = userId;
+            this.document = document;
+            this.nomFichierOriginal = nomFichierOriginal;
+            this.contentType = contentType;
+            this.tailleFichier = tailleFichier;
+            this.path = path;
+        }
+    }
+}
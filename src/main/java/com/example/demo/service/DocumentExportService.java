@@ -0,0 +1,200 @@
+package com.example.demo.service;
+
+import com.example.demo.contract.DocumentExportContract;
+import com.example.demo.contract.DocumentStorageContract;
+import com.example.demo.dto.DocumentFileDTO;
+import com.example.demo.entity.Document;
+import com.example.demo.entity.Societe;
+import com.example.demo.entity.StoredBlob;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.repository.DocumentRepository;
+import com.example.demo.repository.SocieteRepository;
+import com.example.demo.repository.StoredBlobRepository;
+import com.example.demo.util.AppLogger;
+import com.example.demo.util.ZipArchiveResource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+@Service
+@RequiredArgsConstructor
+public class DocumentExportService implements DocumentExportContract {
+
+    private static final String MANIFEST_NAME = "manifest.csv";
+    private static final String MISSING_NAME = "contenus_manquants.csv";
+    private static final String MISSING_HEADER = "numeroPiece,nomFichierOriginal,empreinteSha256";
+    private static final String MANIFEST_HEADER = "fichier,numeroPiece,typeDocument,categorieComptable,datePiece,"
+            + "montant,fournisseur,statut,dateValidation,commentaireComptable,tailleFichier,empreinteSha256";
+
+    private final DocumentRepository documentRepository;
+    private final SocieteRepository societeRepository;
+    private final StoredBlobRepository storedBlobRepository;
+    private final DocumentStorageContract documentStorage;
+
+    @Override
+    @Transactional(readOnly = true)
+    public DocumentFileDTO exportExercice(Long societeId, Integer exercice) {
+        Societe societe = societeRepository.findById(societeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Société", societeId.toString()));
+
+        List<Document> documents = new ArrayList<>(documentRepository.findBySocieteAndExerciceComptable(societe, exercice));
+        // Stable order, so the same data always yields the same bytes and ranges can be resumed
+        documents.sort(Comparator.comparing(Document::getId));
+        if (documents.size() >= ZipArchiveResource.MAX_ENTRIES) {
+            throw exportTooLarge();
+        }
+
+        Map<String, StoredBlob> blobs = storedBlobRepository.findByEmpreinteSha256In(documents.stream()
+                        .map(Document::getEmpreinteSha256)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(StoredBlob::getEmpreinteSha256, Function.identity()));
+
+        List<ZipArchiveResource.Entry> entries = new ArrayList<>();
+        StringBuilder manifest = new StringBuilder(MANIFEST_HEADER).append("\r\n");
+        StringBuilder missing = new StringBuilder(MISSING_HEADER).append("\r\n");
+        int missingCount = 0;
+        LocalDateTime lastUpdate = null;
+        for (Document document : documents) {
+            Optional<ZipArchiveResource.Entry> entry = toEntry(document, blobs.get(document.getEmpreinteSha256()));
+            if (entry.isPresent()) {
+                entries.add(entry.get());
+            } else {
+                // Exported without its file rather than failing the whole export; the manifest keeps
+                // its line (without a file name) and the missing list names it
+                appendCsvLine(missing, List.of(document.getNumeroPiece(), document.getNomFichierOriginal(),
+                        Objects.toString(document.getEmpreinteSha256(), "")));
+                missingCount++;
+            }
+            appendManifestLine(manifest, entry.map(ZipArchiveResource.Entry::name).orElse(""), document);
+            if (lastUpdate == null || document.getUpdatedAt().isAfter(lastUpdate)) {
+                lastUpdate = document.getUpdatedAt();
+            }
+        }
+
+        if (missingCount > 0) {
+            AppLogger.warn(String.format("Export %d/%d: %d documents without content", societeId, exercice,
+                    missingCount));
+            entries.add(0, textEntry(MISSING_NAME, missing, lastUpdate));
+        }
+        byte[] manifestBytes = manifest.toString().getBytes(StandardCharsets.UTF_8);
+        entries.add(0, textEntry(MANIFEST_NAME, manifest, lastUpdate));
+
+        String nomFichier = String.format("%s_%d.zip", societe.getIce(), exercice);
+        long lastModified = lastUpdate != null ? lastUpdate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+        ZipArchiveResource archive;
+        try {
+            archive = new ZipArchiveResource(nomFichier, entries, lastModified);
+        } catch (IllegalArgumentException e) {
+            throw exportTooLarge();
+        }
+
+        return DocumentFileDTO.builder()
+                .resource(archive)
+                .nomFichierOriginal(nomFichier)
+                .contentLength(archive.contentLength())
+                .lastModified(lastModified)
+                // The manifest lists every entry with its digest and status, so it identifies the archive bytes
+                .etag("\"" + sha256(manifestBytes).substring(0, 32) + "\"")
+                .build();
+    }
+
+    /**
+     * @return The archive entry of a document, or empty when its content is not stored
+     */
+    private Optional<ZipArchiveResource.Entry> toEntry(Document document, StoredBlob blob) {
+        if (blob == null) {
+            return Optional.empty();
+        }
+        // Every entry header needs the CRC up front. Blobs stored before it was recorded get it
+        // now, once, instead of waiting for the storage migration to reach them
+        if (blob.getCrc32() == null) {
+            try {
+                documentStorage.recordCrc32(blob);
+            } catch (BusinessException e) {
+                AppLogger.error(String.format("Export: content unreadable for document %d: %s",
+                        document.getId(), e.getMessage()));
+                return Optional.empty();
+            }
+        }
+
+        String name = sanitize(document.getNumeroPiece()) + "_" + sanitize(document.getNomFichierOriginal());
+        return Optional.of(new ZipArchiveResource.Entry(name, blob.getTailleFichier(), blob.getCrc32(),
+                document.getCreatedAt(), documentStorage.open(blob)));
+    }
+
+    private static ZipArchiveResource.Entry textEntry(String name, StringBuilder content, LocalDateTime lastModified) {
+        byte[] bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return new ZipArchiveResource.Entry(name, bytes.length, crc.getValue(), lastModified,
+                new ByteArrayResource(bytes));
+    }
+
+    private void appendManifestLine(StringBuilder manifest, String fichier, Document document) {
+        List<Object> values = List.of(
+                fichier,
+                document.getNumeroPiece(),
+                document.getTypeDocument(),
+                document.getCategorieComptable(),
+                document.getDatePiece(),
+                document.getMontant().toPlainString(),
+                document.getFournisseur(),
+                document.getStatut(),
+                Objects.toString(document.getDateValidation(), ""),
+                Objects.toString(document.getCommentaireComptable(), ""),
+                Objects.toString(document.getTailleFichier(), ""),
+                Objects.toString(document.getEmpreinteSha256(), ""));
+        appendCsvLine(manifest, values);
+    }
+
+    private static void appendCsvLine(StringBuilder csvContent, List<Object> values) {
+        csvContent.append(values.stream()
+                        .map(value -> csv(value.toString()))
+                        .collect(Collectors.joining(",")))
+                .append("\r\n");
+    }
+
+    private static String csv(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static String sanitize(String name) {
+        return name.replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]", "_");
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private BusinessException exportTooLarge() {
+        return new BusinessException("EXPORT_TOO_LARGE",
+                "L'export dépasse la taille maximale d'une archive ZIP (65535 fichiers, 4 Go)");
+    }
+}
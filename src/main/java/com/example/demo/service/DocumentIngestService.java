@@ -0,0 +1,155 @@
+package com.example.demo.service;
+
+import com.example.demo.contract.DocumentIngestContract;
+import com.example.demo.contract.DocumentServiceContract;
+import com.example.demo.dto.DocumentResponseDTO;
+import com.example.demo.dto.DocumentUploadDTO;
+import com.example.demo.dto.IngestStatusDTO;
+import com.example.demo.dto.IngestStatusDTO.StatutIngestion;
+import com.example.demo.entity.User;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.util.AppLogger;
+import com.example.demo.util.StagedMultipartFile;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class DocumentIngestService implements DocumentIngestContract {
+
+    // Finished jobs are kept this long so clients can poll their outcome
+    private static final long STATUS_RETENTION_MINUTES = 60;
+
+    private final DocumentServiceContract documentService;
+    private final TaskExecutor ingestExecutor;
+    private final Map<String, IngestJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${documents.ingest.staging-dir:uploads/documents/staging}")
+    private String stagingDir;
+
+    public DocumentIngestService(DocumentServiceContract documentService,
+            @Qualifier("ingestExecutor") TaskExecutor ingestExecutor) {
+        this.documentService = documentService;
+        this.ingestExecutor = ingestExecutor;
+    }
+
+    @Override
+    public IngestStatusDTO submit(DocumentUploadDTO dto, MultipartFile file, User user) {
+        purgeFinishedJobs();
+
+        String trackingId = UUID.randomUUID().toString();
+        Path stagedPath = stage(file, trackingId);
+        StagedMultipartFile stagedFile = new StagedMultipartFile(
+                stagedPath, file.getOriginalFilename(), file.getContentType());
+
+        IngestJob job = new IngestJob(user.getId(), IngestStatusDTO.builder()
+                .trackingId(trackingId)
+                .statut(StatutIngestion.EN_ATTENTE)
+                .nomFichierOriginal(file.getOriginalFilename())
+                .createdAt(LocalDateTime.now())
+                .build());
+        jobs.put(trackingId, job);
+
+        try {
+            ingestExecutor.execute(() -> process(job, dto, stagedFile, user));
+        } catch (TaskRejectedException e) {
+            jobs.remove(trackingId);
+            deleteQuietly(stagedPath);
+            throw e;
+        }
+
+        return job.status;
+    }
+
+    @Override
+    public IngestStatusDTO getStatus(String trackingId, User user) {
+        IngestJob job = jobs.get(trackingId);
+        if (job == null || !job.userId.equals(user.getId())) {
+            throw new ResourceNotFoundException("Ingestion", trackingId);
+        }
+        return job.status;
+    }
+
+    private void process(IngestJob job, DocumentUploadDTO dto, StagedMultipartFile file, User user) {
+        job.status = job.status.toBuilder().statut(StatutIngestion.EN_COURS).build();
+
+        try {
+            DocumentResponseDTO document = documentService.uploadDocument(dto, file, user);
+            job.status = job.status.toBuilder()
+                    .statut(StatutIngestion.TERMINE)
+                    .document(document)
+                    .completedAt(LocalDateTime.now())
+                    .build();
+        } catch (BusinessException e) {
+            job.status = failed(job.status, e.getCode(), e.getMessage());
+        } catch (Exception e) {
+            AppLogger.error(String.format("Ingestion %s failed: %s - %s",
+                    job.status.getTrackingId(), e.getClass().getSimpleName(), e.getMessage()));
+            job.status = failed(job.status, "INTERNAL_ERROR",
+                    "Une erreur inattendue s'est produite lors du traitement du document");
+        } finally {
+            deleteQuietly(file.getPath());
+        }
+    }
+
+    private Path stage(MultipartFile file, String trackingId) {
+        try {
+            Path stagingPath = Paths.get(stagingDir);
+            Files.createDirectories(stagingPath);
+            Path stagedPath = stagingPath.resolve(trackingId).toAbsolutePath();
+            // Lets the container move its own spooled part instead of copying it when it can
+            // (only the File variant does; transferTo(Path) always copies the stream)
+            file.transferTo(stagedPath.toFile());
+            return stagedPath;
+        } catch (IOException e) {
+            throw new BusinessException("FILE_SAVE_ERROR",
+                    "Erreur lors de l'enregistrement du fichier: " + e.getMessage());
+        }
+    }
+
+    private IngestStatusDTO failed(IngestStatusDTO status, String code, String message) {
+        return status.toBuilder()
+                .statut(StatutIngestion.ECHEC)
+                .code(code)
+                .message(message)
+                .completedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private void purgeFinishedJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minusMinutes(STATUS_RETENTION_MINUTES);
+        jobs.values().removeIf(job -> job.status.getCompletedAt() != null
+                && job.status.getCompletedAt().isBefore(threshold));
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            AppLogger.error(String.format("Failed to delete: %s", path.getFileName()));
+        }
+    }
+
+    private static class IngestJob {
+        private final Long userId;
+        private volatile IngestStatusDTO status;
+
+        private IngestJob(Long userId, IngestStatusDTO status) {
+            this.userId = userId;
+            this.status = status;
+        }
+    }
+}
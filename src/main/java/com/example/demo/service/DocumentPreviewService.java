@@ -0,0 +1,197 @@
+package com.example.demo.service;
+
+import com.example.demo.contract.DocumentPreviewContract;
+import com.example.demo.contract.DocumentServiceContract;
+import com.example.demo.dto.DocumentFileDTO;
+import com.example.demo.entity.User;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.exception.TooManyRequestsException;
+import com.example.demo.repository.DocumentRepository;
+import com.example.demo.util.AppLogger;
+import com.example.demo.util.DiskLruCache;
+import com.example.demo.util.DocumentAccess;
+import com.example.demo.util.FileSignature;
+import com.example.demo.util.ImageRenditions;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+public class DocumentPreviewService implements DocumentPreviewContract {
+
+    private static final String EXTENSION = ".jpg";
+
+    private final DocumentServiceContract documentService;
+    private final DocumentRepository documentRepository;
+    private final TaskExecutor previewExecutor;
+    // Renders in progress, so concurrent requests for the same document share one render
+    private final Map<Long, CompletableFuture<Path>> renders = new ConcurrentHashMap<>();
+    private DiskLruCache cache;
+
+    @Value("${documents.preview.cache-dir:uploads/documents/previews}")
+    private String cacheDir;
+
+    @Value("${documents.preview.cache-max-size:200MB}")
+    private DataSize cacheMaxSize;
+
+    @Value("${documents.preview.max-dimension:320}")
+    private int maxDimension;
+
+    // Images declaring more pixels are refused before decoding (decompression bombs)
+    @Value("${documents.preview.max-pixels:100000000}")
+    private long maxPixels;
+
+    @Value("${documents.preview.jpeg-quality:0.8}")
+    private float jpegQuality;
+
+    @Value("${documents.preview.render-timeout-ms:10000}")
+    private long renderTimeoutMs;
+
+    public DocumentPreviewService(DocumentServiceContract documentService, DocumentRepository documentRepository,
+            @Qualifier("previewExecutor") TaskExecutor previewExecutor) {
+        this.documentService = documentService;
+        this.documentRepository = documentRepository;
+        this.previewExecutor = previewExecutor;
+    }
+
+    @Override
+    public DocumentFileDTO getPreview(Long documentId, User user) {
+        // Checked on every request, cached renditions included; other sociétés' documents do not exist
+        documentRepository.findById(documentId)
+                .filter(document -> DocumentAccess.canAccess(document, user))
+                .orElseThrow(() -> new ResourceNotFoundException("Document", documentId.toString()));
+
+        Path preview = cache().get(key(documentId)).orElseGet(() -> awaitRender(documentId));
+
+        try {
+            long contentLength = Files.size(preview);
+            long lastModified = Files.getLastModifiedTime(preview).toMillis();
+            return DocumentFileDTO.builder()
+                    .resource(new FileSystemResource(preview))
+                    .nomFichierOriginal(documentId + EXTENSION)
+                    .contentLength(contentLength)
+                    .lastModified(lastModified)
+                    .etag(String.format("\"p%d-%x-%x\"", documentId, contentLength, lastModified))
+                    .build();
+        } catch (IOException e) {
+            // Evicted between lookup and read: the next request renders it again
+            throw new TooManyRequestsException("PREVIEW_PENDING",
+                    "L'aperçu est en cours de génération, veuillez réessayer", 1);
+        }
+    }
+
+    @Override
+    public void evict(Long documentId) {
+        try {
+            cache().remove(key(documentId));
+        } catch (IOException e) {
+            AppLogger.error(String.format("Failed to evict preview of document %d: %s", documentId, e.getMessage()));
+        }
+    }
+
+    private Path awaitRender(Long documentId) {
+        CompletableFuture<Path> render = new CompletableFuture<>();
+        CompletableFuture<Path> inProgress = renders.putIfAbsent(documentId, render);
+        if (inProgress != null) {
+            render = inProgress;
+        } else {
+            submitRender(documentId, render);
+        }
+        try {
+            return render.get(renderTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // The render keeps going in the background and lands in the cache
+            throw new TooManyRequestsException("PREVIEW_PENDING",
+                    "L'aperçu est en cours de génération, veuillez réessayer",
+                    Math.max(1, TimeUnit.MILLISECONDS.toSeconds(renderTimeoutMs)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("PREVIEW_ERROR", "Génération de l'aperçu interrompue");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BusinessException businessException) {
+                throw businessException;
+            }
+            throw new BusinessException("PREVIEW_ERROR",
+                    "Impossible de générer l'aperçu du document: " + e.getCause().getMessage());
+        }
+    }
+
+    private void submitRender(Long documentId, CompletableFuture<Path> render) {
+        try {
+            previewExecutor.execute(() -> {
+                try {
+                    render.complete(render(documentId));
+                } catch (Exception e) {
+                    render.completeExceptionally(e);
+                } finally {
+                    renders.remove(documentId, render);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            renders.remove(documentId, render);
+            throw new TooManyRequestsException("PREVIEW_BUSY",
+                    "Trop d'aperçus en cours de génération, veuillez réessayer", 1);
+        }
+    }
+
+    private Path render(Long documentId) throws IOException {
+        DocumentFileDTO file = documentService.downloadDocument(documentId);
+        BufferedImage image;
+        try (InputStream in = new BufferedInputStream(file.getResource().getInputStream())) {
+            in.mark(FileSignature.HEADER_LENGTH);
+            FileSignature signature = FileSignature.detect(in.readNBytes(FileSignature.HEADER_LENGTH))
+                    .orElseThrow(() -> new BusinessException("PREVIEW_UNSUPPORTED",
+                            "Aucun aperçu disponible pour ce type de fichier"));
+            in.reset();
+            image = signature == FileSignature.PDF
+                    ? ImageRenditions.renderPdfFirstPage(in, maxDimension)
+                    : ImageRenditions.readImage(in, maxPixels, maxDimension);
+        } catch (ImageRenditions.ImageTooLargeException e) {
+            throw new BusinessException("PREVIEW_UNSUPPORTED", "Image trop grande pour générer un aperçu");
+        }
+
+        DiskLruCache previews = cache();
+        Path tempFile = previews.newTempFile();
+        try {
+            ImageRenditions.writeJpeg(ImageRenditions.downscale(image, maxDimension), tempFile, jpegQuality);
+            return previews.put(key(documentId), tempFile);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private synchronized DiskLruCache cache() {
+        if (cache == null) {
+            try {
+                cache = new DiskLruCache(Paths.get(cacheDir), cacheMaxSize.toBytes());
+            } catch (IOException e) {
+                throw new BusinessException("PREVIEW_ERROR",
+                        "Impossible d'ouvrir le cache des aperçus: " + e.getMessage());
+            }
+        }
+        return cache;
+    }
+
+    private static String key(Long documentId) {
+        return documentId + EXTENSION;
+    }
+}
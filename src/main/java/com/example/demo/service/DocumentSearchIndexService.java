@@ -0,0 +1,396 @@
+package com.example.demo.service;
+
+import com.example.demo.contract.DocumentSearchIndexContract;
+import com.example.demo.dto.DocumentPageDTO;
+import com.example.demo.dto.DocumentResponseDTO;
+import com.example.demo.dto.DocumentSearchDTO;
+import com.example.demo.entity.Document;
+import com.example.demo.event.DocumentStoredEvent;
+import com.example.demo.event.DocumentValidatedEvent;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.exception.ConflictException;
+import com.example.demo.repository.DocumentRepository;
+import com.example.demo.repository.DocumentSpecifications;
+import com.example.demo.util.AppLogger;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Embedded Lucene index over the free-text fields of documents, kept on local disk.
+ * Documents are (re)indexed after the transaction that stores or validates them commits;
+ * hits are turned back into response rows through the listing projection, so the index only
+ * holds ids and never serves stale document data.
+ */
+@Service
+@RequiredArgsConstructor
+public class DocumentSearchIndexService implements DocumentSearchIndexContract {
+
+    private static final String ID = "id";
+    private static final String SOCIETE = "societe";
+    private static final String TEXT = "text";
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+    private static final String REBUILD_SUFFIX = ".rebuild";
+
+    private final DocumentRepository documentRepository;
+
+    @Value("${documents.search.enabled:true}")
+    private boolean enabled;
+
+    @Value("${documents.search.index-dir:uploads/documents/index}")
+    private String indexDir;
+
+    @Value("${documents.search.max-results:50}")
+    private int maxResults;
+
+    // Each word expands into up to three clauses (fuzzy ones into many terms), well below
+    // Lucene's clause limit at this size
+    @Value("${documents.search.max-terms:10}")
+    private int maxTerms;
+
+    private final Analyzer analyzer = new FoldingAnalyzer();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Held shared by writes to the live index, exclusively while a rebuilt index replaces its content
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    // Documents indexed while a rebuild scans the database, indexed again once it is swapped in
+    private final Set<Long> indexedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+
+    @PostConstruct
+    void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        writer = new IndexWriter(FSDirectory.open(Paths.get(indexDir)), config);
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (writer != null) {
+            searcherManager.close();
+            writer.close();
+        }
+    }
+
+    /**
+     * Fill an empty index (first start, or index directory lost) from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (enabled && writer.getDocStats().numDocs == 0 && documentRepository.count() > 0) {
+            AppLogger.info("Search index is empty, indexing existing documents...");
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onDocumentStored(DocumentStoredEvent event) {
+        indexQuietly(event.documentId());
+    }
+
+    @TransactionalEventListener
+    public void onDocumentValidated(DocumentValidatedEvent event) {
+        indexQuietly(event.documentId());
+    }
+
+    // Uncommitted index changes are already searchable; this only makes them survive a restart
+    @Scheduled(fixedDelayString = "${documents.search.commit-interval-ms:5000}")
+    public void commit() {
+        if (!enabled || !writer.hasUncommittedChanges()) {
+            return;
+        }
+        swapLock.readLock().lock();
+        try {
+            writer.commit();
+        } catch (IOException e) {
+            AppLogger.error("Search index commit failed: " + e.getMessage());
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public DocumentPageDTO search(String query, Long societeId, Integer size) {
+        requireEnabled();
+        List<String> terms = analyze(query);
+        if (terms.isEmpty()) {
+            throw new BusinessException("INVALID_QUERY", "La recherche doit contenir au moins un mot");
+        }
+        if (terms.size() > maxTerms) {
+            throw new BusinessException("QUERY_TOO_LONG",
+                    String.format("La recherche ne doit pas dépasser %d mots", maxTerms));
+        }
+        int limit = size == null ? maxResults : Math.min(Math.max(size, 1), maxResults);
+
+        List<Long> ids = new ArrayList<>();
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                for (ScoreDoc hit : searcher.search(buildQuery(terms, societeId), limit).scoreDocs) {
+                    ids.add(Long.valueOf(searcher.storedFields().document(hit.doc).get(ID)));
+                }
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        List<DocumentResponseDTO> items = List.of();
+        if (!ids.isEmpty()) {
+            // Rows come back in listing order; put them back in relevance order. Hits for
+            // documents deleted since they were indexed simply have no row.
+            Map<Long, DocumentResponseDTO> rows = documentRepository.findPage(
+                            DocumentSpecifications.hasIdIn(ids),
+                            DocumentSpecifications.keysetOrder(DocumentSearchDTO.Tri.DATE_CREATION,
+                                    DocumentSearchDTO.Sens.ASC),
+                            ids.size())
+                    .stream()
+                    .collect(Collectors.toMap(DocumentResponseDTO::getId, Function.identity()));
+            items = ids.stream().map(rows::get).filter(Objects::nonNull).toList();
+        }
+
+        return DocumentPageDTO.builder()
+                .items(items)
+                .size(items.size())
+                .build();
+    }
+
+    @Override
+    public void index(Long documentId) {
+        requireEnabled();
+        Document document = documentRepository.findById(documentId).orElse(null);
+        swapLock.readLock().lock();
+        try {
+            if (rebuilding.get()) {
+                indexedDuringRebuild.add(documentId);
+            }
+            if (document == null) {
+                writer.deleteDocuments(new Term(ID, documentId.toString()));
+            } else {
+                writer.updateDocument(new Term(ID, documentId.toString()), toIndexDocument(document));
+            }
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long rebuild() {
+        requireEnabled();
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new ConflictException("REBUILD_IN_PROGRESS", "Une reconstruction de l'index est déjà en cours");
+        }
+        // Built aside, so searches keep using the complete live index until the swap
+        Path staging = Paths.get(indexDir + REBUILD_SUFFIX);
+        try {
+            indexedDuringRebuild.clear();
+            deleteRecursively(staging);
+            long count = 0;
+            try (FSDirectory directory = FSDirectory.open(staging)) {
+                try (IndexWriter rebuilt = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                        .setOpenMode(IndexWriterConfig.OpenMode.CREATE))) {
+                    long lastId = 0;
+                    List<Document> batch;
+                    do {
+                        batch = documentRepository.findByIdGreaterThanOrderByIdAsc(lastId,
+                                PageRequest.of(0, REBUILD_BATCH_SIZE));
+                        for (Document document : batch) {
+                            rebuilt.addDocument(toIndexDocument(document));
+                            lastId = document.getId();
+                        }
+                        count += batch.size();
+                    } while (batch.size() == REBUILD_BATCH_SIZE);
+                    rebuilt.commit();
+                }
+
+                // No searcher is refreshed (and nothing committed) between the wipe and the copy
+                swapLock.writeLock().lock();
+                try {
+                    writer.deleteAll();
+                    writer.addIndexes(directory);
+                    writer.commit();
+                    searcherManager.maybeRefresh();
+                } finally {
+                    swapLock.writeLock().unlock();
+                }
+            }
+
+            // The scan may have read these before they changed; the swap dropped their live entries
+            for (Long documentId : List.copyOf(indexedDuringRebuild)) {
+                indexQuietly(documentId);
+            }
+            AppLogger.success(String.format("Search index rebuilt: %d documents", count));
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            indexedDuringRebuild.clear();
+            rebuilding.set(false);
+            try {
+                deleteRecursively(staging);
+            } catch (IOException e) {
+                AppLogger.warn(String.format("Search index staging %s not removed: %s", staging, e.getMessage()));
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private void indexQuietly(Long documentId) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            index(documentId);
+        } catch (RuntimeException e) {
+            // The document is saved either way; a rebuild brings the index back in line
+            AppLogger.warn(String.format("Document %d not indexed for search: %s", documentId, e.getMessage()));
+        }
+    }
+
+    private org.apache.lucene.document.Document toIndexDocument(Document document) {
+        org.apache.lucene.document.Document indexed = new org.apache.lucene.document.Document();
+        indexed.add(new StringField(ID, document.getId().toString(), Field.Store.YES));
+        // Reading the id of the lazy société does not load it
+        indexed.add(new StringField(SOCIETE, document.getSociete().getId().toString(), Field.Store.NO));
+        for (String value : new String[]{document.getFournisseur(), document.getCategorieComptable(),
+                document.getCommentaireComptable(), document.getNumeroPiece(), document.getNomFichierOriginal()}) {
+            if (value != null) {
+                indexed.add(new TextField(TEXT, value, Field.Store.NO));
+            }
+        }
+        return indexed;
+    }
+
+    /**
+     * Every query word must match, exactly (best), as a prefix, or within an edit distance
+     * that grows with the word length.
+     */
+    private Query buildQuery(List<String> terms, Long societeId) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String term : terms) {
+            BooleanQuery.Builder word = new BooleanQuery.Builder()
+                    .add(new BoostQuery(new TermQuery(new Term(TEXT, term)), 4f), BooleanClause.Occur.SHOULD)
+                    .add(new BoostQuery(new PrefixQuery(new Term(TEXT, term)), 2f), BooleanClause.Occur.SHOULD);
+            int maxEdits = term.length() < 3 ? 0 : term.length() < 6 ? 1 : 2;
+            if (maxEdits > 0) {
+                word.add(new FuzzyQuery(new Term(TEXT, term), maxEdits, 1), BooleanClause.Occur.SHOULD);
+            }
+            query.add(word.build(), BooleanClause.Occur.MUST);
+        }
+        if (societeId != null) {
+            query.add(new TermQuery(new Term(SOCIETE, societeId.toString())), BooleanClause.Occur.FILTER);
+        }
+        return query.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        try (TokenStream stream = analyzer.tokenStream(TEXT, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private void requireEnabled() {
+        if (!enabled) {
+            throw new BusinessException("SEARCH_DISABLED", "La recherche plein texte n'est pas activée");
+        }
+    }
+
+    /**
+     * Standard tokenization, lower-cased and stripped of accents, so "societe" finds "Société".
+     */
+    private static class FoldingAnalyzer extends Analyzer {
+
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer tokenizer = new StandardTokenizer();
+            return new TokenStreamComponents(tokenizer, new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer)));
+        }
+
+        @Override
+        protected TokenStream normalize(String fieldName, TokenStream in) {
+            return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+        }
+    }
+}
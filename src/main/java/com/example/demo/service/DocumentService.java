@@ -1,32 +1,65 @@
 package com.example.demo.service;
 
 import com.example.demo.contract.DocumentServiceContract;
+import com.example.demo.contract.DocumentStorageContract;
+import com.example.demo.contract.NumeroPieceIndexContract;
+import com.example.demo.dto.DocumentBatchItemResultDTO;
+import com.example.demo.dto.DocumentBatchResultDTO;
+import com.example.demo.dto.DocumentFileDTO;
+import com.example.demo.dto.DocumentPageDTO;
 import com.example.demo.dto.DocumentResponseDTO;
+import com.example.demo.dto.DocumentSearchDTO;
 import com.example.demo.dto.DocumentUploadDTO;
 import com.example.demo.dto.DocumentValidationDTO;
 import com.example.demo.entity.Document;
 import com.example.demo.entity.Societe;
+import com.example.demo.entity.StoredBlob;
 import com.example.demo.entity.User;
 import com.example.demo.exception.BusinessException;
+import com.example.demo.event.DocumentStoredEvent;
+import com.example.demo.event.DocumentValidatedEvent;
 import com.example.demo.exception.ResourceNotFoundException;
 import com.example.demo.repository.DocumentRepository;
+import com.example.demo.repository.DocumentSpecifications;
 import com.example.demo.repository.SocieteRepository;
 import com.example.demo.util.AppLogger;
+import com.example.demo.util.ConstraintViolations;
+import com.example.demo.util.DocumentCursor;
+import com.example.demo.util.FileSignature;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,79 +68,195 @@ public class DocumentService implements DocumentServiceContract {
 
     private final DocumentRepository documentRepository;
     private final SocieteRepository societeRepository;
+    private final DocumentStorageContract documentStorage;
+    private final NumeroPieceIndexContract numeroPieceIndex;
+    private final NumeroPieceReservationService numeroPieceReservations;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
 
     private static final String UPLOAD_DIR = "uploads/documents/";
-    private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+    public static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
     private static final List<String> ALLOWED_EXTENSIONS = Arrays.asList("pdf", "jpg", "jpeg", "png");
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+    private static final Map<Document.TypeDocument, Set<FileSignature>> ALLOWED_SIGNATURES_BY_TYPE = Map.of(
+            Document.TypeDocument.FACTURE_ACHAT, EnumSet.allOf(FileSignature.class),
+            Document.TypeDocument.FACTURE_VENTE, EnumSet.allOf(FileSignature.class),
+            Document.TypeDocument.TICKET_CAISSE, EnumSet.allOf(FileSignature.class),
+            Document.TypeDocument.RELEVE_BANCAIRE, EnumSet.of(FileSignature.PDF));
+
+    @Value("${documents.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${documents.page.max-size:200}")
+    private int maxPageSize;
 
     @Override
     @Transactional
     public DocumentResponseDTO uploadDocument(DocumentUploadDTO dto, MultipartFile file, User user) {
         // Validate file
-        validateFile(file);
+        validateFile(file, dto.getTypeDocument());
 
-        // Check if numero piece already exists
-        documentRepository.findByNumeroPiece(dto.getNumeroPiece()).ifPresent(doc -> {
-            throw new BusinessException("DUPLICATE_DOCUMENT",
-                    String.format("Un document avec le numéro de pièce '%s' existe déjà", dto.getNumeroPiece()));
-        });
+        // Reserve the number before any I/O so a concurrent upload of the same piece fails fast
+        if (!numeroPieceReservations.reserve(dto.getNumeroPiece())) {
+            throw duplicateDocument(dto.getNumeroPiece());
+        }
 
-        // Get societe
-        Societe societe = user.getSociete();
-        if (societe == null) {
-            throw new BusinessException("NO_SOCIETE",
-                    "L'utilisateur n'est associé à aucune société");
+        try {
+            // Check if numero piece already exists (the index rules out most numbers without a query)
+            if (numeroPieceIndex.mightContain(dto.getNumeroPiece())
+                    && documentRepository.existsByNumeroPiece(dto.getNumeroPiece())) {
+                throw duplicateDocument(dto.getNumeroPiece());
+            }
+
+            // Get societe
+            Societe societe = requireSociete(user);
+
+            // Save file (stored once per distinct content)
+            StoredBlob blob = documentStorage.store(file);
+
+            // Create document
+            Document saved = documentRepository.save(buildDocument(dto, file, blob, societe, user));
+            numeroPieceIndex.add(saved.getNumeroPiece());
+            // Post-ingest processing (image normalization) runs once this transaction commits
+            eventPublisher.publishEvent(new DocumentStoredEvent(saved.getId(), saved.getTypeDocument()));
+
+            return mapToDTO(saved);
+        } finally {
+            numeroPieceReservations.releaseAfterCompletion(List.of(dto.getNumeroPiece()));
         }
+    }
 
-        // Save file
-        String savedFilePath = saveFile(file, societe.getIce());
+    @Override
+    public DocumentBatchResultDTO uploadDocuments(List<DocumentUploadDTO> dtos, List<MultipartFile> files, User user) {
+        if (dtos.size() != files.size()) {
+            throw new BusinessException("BATCH_MISMATCH",
+                    String.format("Le manifeste décrit %d documents mais %d fichiers ont été reçus",
+                            dtos.size(), files.size()));
+        }
 
-        // Create document
-        Document document = Document.builder()
-                .numeroPiece(dto.getNumeroPiece())
-                .typeDocument(dto.getTypeDocument())
-                .categorieComptable(dto.getCategorieComptable())
-                .datePiece(dto.getDatePiece())
-                .montant(dto.getMontant())
-                .fournisseur(dto.getFournisseur())
-                .cheminFichier(savedFilePath)
-                .nomFichierOriginal(file.getOriginalFilename())
-                .statut(Document.StatutDocument.EN_ATTENTE)
-                .societe(societe)
-                .uploadedBy(user)
-                .exerciceComptable(dto.getExerciceComptable())
-                .build();
+        Societe societe = requireSociete(user);
 
-        Document saved = documentRepository.save(document);
+        // Single IN query for the whole batch, limited to the numbers the index cannot rule out
+        Set<String> candidates = dtos.stream()
+                .map(DocumentUploadDTO::getNumeroPiece)
+                .filter(numeroPieceIndex::mightContain)
+                .collect(Collectors.toSet());
+        Set<String> existingNumeros = candidates.isEmpty()
+                ? Set.of()
+                : documentRepository.findExistingNumeroPieces(candidates);
+        Set<String> batchNumeros = new HashSet<>();
 
-        return mapToDTO(saved);
+        DocumentBatchItemResultDTO[] results = new DocumentBatchItemResultDTO[dtos.size()];
+        List<Integer> accepted = new ArrayList<>();
+        List<String> reservedNumeros = new ArrayList<>();
+
+        int succeeded = 0;
+        try {
+            for (int i = 0; i < dtos.size(); i++) {
+                DocumentUploadDTO dto = dtos.get(i);
+                MultipartFile file = files.get(i);
+
+                try {
+                    validateFile(file, dto.getTypeDocument());
+                    if (existingNumeros.contains(dto.getNumeroPiece()) || !batchNumeros.add(dto.getNumeroPiece())
+                            || !numeroPieceReservations.reserve(dto.getNumeroPiece())) {
+                        throw duplicateDocument(dto.getNumeroPiece());
+                    }
+                    reservedNumeros.add(dto.getNumeroPiece());
+                    accepted.add(i);
+                } catch (BusinessException e) {
+                    results[i] = batchFailure(i, dto, file, e.getCode(), e.getMessage());
+                }
+            }
+
+            // Each stored file keeps its blob row locked until the batch commits. Taking them in digest
+            // order, as every batch does, makes batches sharing files wait for each other instead of
+            // deadlocking; hashing reads each part once more, which is cheap next to the upload itself
+            List<Integer> storeOrder = sortByContentDigest(accepted, files);
+            try {
+                succeeded = new TransactionTemplate(transactionManager).execute(status -> {
+                    List<Document> documents = new ArrayList<>();
+                    for (int i : storeOrder) {
+                        StoredBlob blob = documentStorage.store(files.get(i));
+                        documents.add(buildDocument(dtos.get(i), files.get(i), blob, societe, user));
+                    }
+
+                    // Rows are flushed as JDBC batches (hibernate.jdbc.batch_size)
+                    List<Document> saved = documentRepository.saveAllAndFlush(documents);
+                    for (int j = 0; j < saved.size(); j++) {
+                        results[storeOrder.get(j)] = stored(storeOrder.get(j), saved.get(j));
+                    }
+                    return saved.size();
+                });
+            } catch (BusinessException | UncheckedIOException | DataIntegrityViolationException
+                     | PessimisticLockingFailureException e) {
+                // The batch rolled back as a whole; replay it item by item so only the failing ones are lost
+                AppLogger.warn(String.format("Batch upload rolled back (%s), saving documents one by one",
+                        e.getMessage()));
+                succeeded = 0;
+                for (int i : accepted) {
+                    results[i] = uploadBatchItem(i, dtos.get(i), files.get(i), societe, user);
+                    if (results[i].isSuccess()) {
+                        succeeded++;
+                    }
+                }
+            }
+        } finally {
+            numeroPieceReservations.releaseAfterCompletion(reservedNumeros);
+        }
+
+        AppLogger.info(String.format("Batch upload: %d/%d documents saved for societe %s",
+                succeeded, dtos.size(), societe.getIce()));
+
+        return DocumentBatchResultDTO.builder()
+                .total(dtos.size())
+                .succeeded(succeeded)
+                .failed(dtos.size() - succeeded)
+                .items(Arrays.asList(results))
+                .build();
     }
 
     @Override
-    public List<DocumentResponseDTO> getDocumentsBySocieteAndExercice(Long societeId, Integer exercice) {
+    @Transactional(readOnly = true)
+    public DocumentPageDTO getDocumentsBySocieteAndExercice(Long societeId, Integer exercice, String cursor,
+            Integer size) {
         Societe societe = societeRepository.findById(societeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Société", societeId.toString()));
 
-        return documentRepository.findBySocieteAndExerciceComptable(societe, exercice)
-                .stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return findPage(DocumentSpecifications.hasSociete(societe).and(DocumentSpecifications.hasExercice(exercice)),
+                cursor, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DocumentPageDTO getAllPendingDocuments(String cursor, Integer size) {
+        return findPage(DocumentSpecifications.hasStatut(Document.StatutDocument.EN_ATTENTE), cursor, size);
     }
 
     @Override
-    public List<DocumentResponseDTO> getAllPendingDocuments() {
-        return documentRepository.findByStatut(Document.StatutDocument.EN_ATTENTE)
-                .stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public DocumentPageDTO getPendingDocumentsByExercice(Integer exercice, String cursor, Integer size) {
+        return findPage(DocumentSpecifications.hasStatut(Document.StatutDocument.EN_ATTENTE)
+                .and(DocumentSpecifications.hasExercice(exercice)), cursor, size);
     }
 
     @Override
-    public List<DocumentResponseDTO> getPendingDocumentsByExercice(Integer exercice) {
-        return documentRepository.findByStatutAndExerciceComptable(Document.StatutDocument.EN_ATTENTE, exercice)
-                .stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public DocumentPageDTO searchDocuments(DocumentSearchDTO criteria, String cursor, Integer size) {
+        if (criteria.getDateDebut() != null && criteria.getDateFin() != null
+                && criteria.getDateDebut().isAfter(criteria.getDateFin())) {
+            throw new BusinessException("INVALID_SEARCH",
+                    "La date de début doit être antérieure ou égale à la date de fin");
+        }
+        if (criteria.getMontantMin() != null && criteria.getMontantMax() != null
+                && criteria.getMontantMin().compareTo(criteria.getMontantMax()) > 0) {
+            throw new BusinessException("INVALID_SEARCH",
+                    "Le montant minimum doit être inférieur ou égal au montant maximum");
+        }
+
+        DocumentSearchDTO.Tri tri = criteria.getTri() != null ? criteria.getTri() : DocumentSearchDTO.Tri.DATE_CREATION;
+        DocumentSearchDTO.Sens sens = criteria.getSens() != null ? criteria.getSens() : DocumentSearchDTO.Sens.ASC;
+        return findPage(DocumentSpecifications.matching(criteria), tri, sens, cursor, size);
     }
 
     @Override
@@ -138,6 +287,7 @@ public class DocumentService implements DocumentServiceContract {
         document.setValidatedBy(comptable);
 
         Document updated = documentRepository.save(document);
+        eventPublisher.publishEvent(new DocumentValidatedEvent(updated.getId()));
         return mapToDTO(updated);
     }
 
@@ -149,24 +299,49 @@ public class DocumentService implements DocumentServiceContract {
     }
 
     @Override
-    public List<DocumentResponseDTO> getDocumentsBySociete(Long societeId) {
+    @Transactional(readOnly = true)
+    public DocumentPageDTO getDocumentsBySociete(Long societeId, String cursor, Integer size) {
         Societe societe = societeRepository.findById(societeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Société", societeId.toString()));
 
-        return documentRepository.findBySociete(societe)
-                .stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return findPage(DocumentSpecifications.hasSociete(societe), cursor, size);
     }
 
     @Override
-    public byte[] downloadDocument(Long documentId) {
+    public DocumentFileDTO downloadDocument(Long documentId) {
         Document document = documentRepository.findById(documentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Document", documentId.toString()));
 
+        // Hand out a lazily opened resource so the body is streamed (and sliced for Range requests)
+        // instead of being loaded on the heap. Documents not yet moved by the storage migration
+        // are still read from their local path.
+        Resource resource = document.getEmpreinteSha256() != null
+                ? documentStorage.open(document.getEmpreinteSha256())
+                : new FileSystemResource(Paths.get(document.getCheminFichier()));
+        if (!resource.isReadable()) {
+            throw new BusinessException("FILE_READ_ERROR",
+                    "Erreur lors de la lecture du fichier: " + document.getCheminFichier());
+        }
+
         try {
-            Path filePath = Paths.get(document.getCheminFichier());
-            return Files.readAllBytes(filePath);
+            long contentLength = resource.contentLength();
+            long lastModified = resource.lastModified();
+
+            // Blob content is addressed by its digest, which makes a strong validator; files
+            // not yet migrated fall back to id, length and modification date
+            String etag = document.getEmpreinteSha256() != null
+                    ? "\"" + document.getEmpreinteSha256() + "\""
+                    : String.format("\"%d-%x-%x\"", document.getId(), contentLength, lastModified);
+
+            return DocumentFileDTO.builder()
+                    .resource(resource)
+                    .nomFichierOriginal(document.getNomFichierOriginal())
+                    .contentLength(contentLength)
+                    .lastModified(lastModified)
+                    .etag(etag)
+                    // Content is only rewritten (image normalization) before a document is processed
+                    .immutable(document.getStatut() != Document.StatutDocument.EN_ATTENTE)
+                    .build();
         } catch (IOException e) {
             throw new BusinessException("FILE_READ_ERROR",
                     "Erreur lors de la lecture du fichier: " + e.getMessage());
@@ -198,7 +373,7 @@ public class DocumentService implements DocumentServiceContract {
         AppLogger.footer("Cleaning up documents");
     }
 
-    private void validateFile(MultipartFile file) {
+    private void validateFile(MultipartFile file, Document.TypeDocument typeDocument) {
         if (file.isEmpty()) {
             throw new BusinessException("EMPTY_FILE", "Le fichier est vide");
         }
@@ -221,27 +396,158 @@ public class DocumentService implements DocumentServiceContract {
                                     .map(String::toUpperCase)
                                     .collect(Collectors.toList()))));
         }
+
+        FileSignature declared = FileSignature.fromExtension(extension).orElseThrow();
+        FileSignature detected = sniffSignature(file);
+        if (detected != declared) {
+            throw new BusinessException("FILE_CONTENT_MISMATCH",
+                    String.format("Le contenu du fichier ne correspond pas à l'extension '%s'", extension));
+        }
+
+        if (typeDocument != null && !ALLOWED_SIGNATURES_BY_TYPE.get(typeDocument).contains(detected)) {
+            throw new BusinessException("INVALID_FILE_FORMAT",
+                    String.format("Format %s non accepté pour le type de document %s", detected, typeDocument));
+        }
     }
 
-    private String saveFile(MultipartFile file, String ice) {
-        try {
-            // Create directory structure: uploads/documents/{ICE}/
-            Path uploadPath = Paths.get(UPLOAD_DIR, ice);
-            Files.createDirectories(uploadPath);
+    private FileSignature sniffSignature(MultipartFile file) {
+        // Only the first bytes are read, the rest of the part is never buffered
+        try (InputStream in = file.getInputStream()) {
+            return FileSignature.detect(in.readNBytes(FileSignature.HEADER_LENGTH)).orElse(null);
+        } catch (IOException e) {
+            throw new BusinessException("FILE_READ_ERROR",
+                    "Erreur lors de la lecture du fichier: " + e.getMessage());
+        }
+    }
 
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String extension = getFileExtension(originalFilename);
-            String uniqueFilename = UUID.randomUUID().toString() + "." + extension;
+    private DocumentPageDTO findPage(Specification<Document> filter, String cursor, Integer size) {
+        return findPage(filter, DocumentSearchDTO.Tri.DATE_CREATION, DocumentSearchDTO.Sens.ASC, cursor, size);
+    }
 
-            Path filePath = uploadPath.resolve(uniqueFilename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+    private DocumentPageDTO findPage(Specification<Document> filter, DocumentSearchDTO.Tri tri,
+            DocumentSearchDTO.Sens sens, String cursor, Integer size) {
+        int limit = size == null ? defaultPageSize : Math.min(Math.max(size, 1), maxPageSize);
+
+        // One extra row tells whether a next page exists without a count query
+        List<DocumentResponseDTO> documents = documentRepository.findPage(
+                filter.and(DocumentSpecifications.after(DocumentCursor.decode(cursor, tri), sens)),
+                DocumentSpecifications.keysetOrder(tri, sens), limit + 1);
+        boolean hasNext = documents.size() > limit;
+        List<DocumentResponseDTO> page = hasNext ? documents.subList(0, limit) : documents;
+
+        return DocumentPageDTO.builder()
+                .items(page)
+                .size(page.size())
+                .nextCursor(hasNext ? DocumentCursor.of(page.get(page.size() - 1), tri).encode() : null)
+                .build();
+    }
 
-            return filePath.toString();
-        } catch (IOException e) {
-            throw new BusinessException("FILE_SAVE_ERROR",
+    private DocumentBatchItemResultDTO uploadBatchItem(int index, DocumentUploadDTO dto, MultipartFile file,
+            Societe societe, User user) {
+        try {
+            return new TransactionTemplate(transactionManager).execute(status -> stored(index, documentRepository
+                    .saveAndFlush(buildDocument(dto, file, documentStorage.store(file), societe, user))));
+        } catch (BusinessException e) {
+            return batchFailure(index, dto, file, e.getCode(), e.getMessage());
+        } catch (UncheckedIOException e) {
+            return batchFailure(index, dto, file, "FILE_SAVE_ERROR",
                     "Erreur lors de l'enregistrement du fichier: " + e.getMessage());
+        } catch (PessimisticLockingFailureException e) {
+            // Lock wait timeout or deadlock victim on the blob row
+            return batchFailure(index, dto, file, "STORAGE_BUSY",
+                    "Ce fichier est en cours d'enregistrement par un autre envoi, veuillez réessayer");
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.violates(e, Document.NUMERO_PIECE_CONSTRAINT)) {
+                BusinessException duplicate = duplicateDocument(dto.getNumeroPiece());
+                return batchFailure(index, dto, file, duplicate.getCode(), duplicate.getMessage());
+            }
+            return batchFailure(index, dto, file, "DATA_CONFLICT",
+                    "La ressource existe déjà ou a été modifiée simultanément");
+        }
+    }
+
+    private static List<Integer> sortByContentDigest(List<Integer> indexes, List<MultipartFile> files) {
+        Map<Integer, String> digests = new HashMap<>();
+        for (int i : indexes) {
+            digests.put(i, contentDigest(files.get(i)));
         }
+        return indexes.stream()
+                .sorted(Comparator.comparing(digests::get))
+                .toList();
+    }
+
+    // Unreadable parts sort first; storing them fails and the batch is replayed item by item
+    private static String contentDigest(MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[DIGEST_BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            return "";
+        }
+    }
+
+    // Called inside the transaction that saved the document, so its event fires on commit
+    private DocumentBatchItemResultDTO stored(int index, Document document) {
+        numeroPieceIndex.add(document.getNumeroPiece());
+        eventPublisher.publishEvent(new DocumentStoredEvent(document.getId(), document.getTypeDocument()));
+        return DocumentBatchItemResultDTO.builder()
+                .index(index)
+                .numeroPiece(document.getNumeroPiece())
+                .nomFichierOriginal(document.getNomFichierOriginal())
+                .success(true)
+                .document(mapToDTO(document))
+                .build();
+    }
+
+    private DocumentBatchItemResultDTO batchFailure(int index, DocumentUploadDTO dto, MultipartFile file,
+            String code, String message) {
+        return DocumentBatchItemResultDTO.builder()
+                .index(index)
+                .numeroPiece(dto.getNumeroPiece())
+                .nomFichierOriginal(file.getOriginalFilename())
+                .success(false)
+                .code(code)
+                .message(message)
+                .build();
+    }
+
+    private Societe requireSociete(User user) {
+        Societe societe = user.getSociete();
+        if (societe == null) {
+            throw new BusinessException("NO_SOCIETE",
+                    "L'utilisateur n'est associé à aucune société");
+        }
+        return societe;
+    }
+
+    private BusinessException duplicateDocument(String numeroPiece) {
+        return new BusinessException("DUPLICATE_DOCUMENT",
+                String.format("Un document avec le numéro de pièce '%s' existe déjà", numeroPiece));
+    }
+
+    private Document buildDocument(DocumentUploadDTO dto, MultipartFile file, StoredBlob blob,
+            Societe societe, User user) {
+        return Document.builder()
+                .numeroPiece(dto.getNumeroPiece())
+                .typeDocument(dto.getTypeDocument())
+                .categorieComptable(dto.getCategorieComptable())
+                .datePiece(dto.getDatePiece())
+                .montant(dto.getMontant())
+                .fournisseur(dto.getFournisseur())
+                .cheminFichier(blob.getCheminFichier())
+                .nomFichierOriginal(file.getOriginalFilename())
+                .empreinteSha256(blob.getEmpreinteSha256())
+                .tailleFichier(blob.getTailleFichier())
+                .statut(Document.StatutDocument.EN_ATTENTE)
+                .societe(societe)
+                .uploadedBy(user)
+                .exerciceComptable(dto.getExerciceComptable())
+                .build();
     }
 
     private String getFileExtension(String filename) {
@@ -259,6 +565,8 @@ public class DocumentService implements DocumentServiceContract {
                 .montant(document.getMontant())
                 .fournisseur(document.getFournisseur())
                 .nomFichierOriginal(document.getNomFichierOriginal())
+                .empreinteSha256(document.getEmpreinteSha256())
+                .tailleFichier(document.getTailleFichier())
                 .statut(document.getStatut())
                 .dateValidation(document.getDateValidation())
                 .commentaireComptable(document.getCommentaireComptable())
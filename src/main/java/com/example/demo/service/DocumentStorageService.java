@@ -0,0 +1,497 @@
+package com.example.demo.service;
+
+import com.example.demo.contract.DocumentStorageContract;
+import com.example.demo.contract.StorageBackend;
+import com.example.demo.entity.StoredBlob;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.repository.StoredBlobRepository;
+import com.example.demo.util.AppLogger;
+import com.example.demo.util.FileSignature;
+import com.example.demo.util.StorageResource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+@Service
+@RequiredArgsConstructor
+public class DocumentStorageService implements DocumentStorageContract {
+
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+    private static final int COMPRESSION_BUFFER_SIZE = 64 * 1024;
+
+    private final StoredBlobRepository storedBlobRepository;
+    private final StorageBackend storageBackend;
+    private final StorageIntentService storageIntents;
+    private final PlatformTransactionManager transactionManager;
+
+    // Local scratch space; keep it on the same file system as the local blob directory
+    @Value("${documents.storage.staging-dir:uploads/documents/blobs/.tmp}")
+    private String stagingDir;
+
+    // Blob fan-out: shard-depth key levels of shard-width hex characters each
+    @Value("${documents.storage.shard-depth:2}")
+    private int shardDepth;
+
+    @Value("${documents.storage.shard-width:2}")
+    private int shardWidth;
+
+    @Value("${documents.storage.compression.enabled:false}")
+    private boolean compressionEnabled;
+
+    // Formats worth deflating; JPEG (and most PNG) content is already compressed
+    @Value("${documents.storage.compression.types:PDF}")
+    private String[] compressionTypes;
+
+    @Value("${documents.storage.compression.level:6}")
+    private int compressionLevel;
+
+    // Compressed copies saving less than this are discarded and the content is stored as is
+    @Value("${documents.storage.compression.min-savings-percent:10}")
+    private int compressionMinSavingsPercent;
+
+    @Override
+    @Transactional
+    public StoredBlob store(MultipartFile file) {
+        Path tempFile = null;
+        Path compressed = null;
+        try {
+            // The multipart spool shares the staging file system, so the container renames its part
+            // file here instead of copying it; only parts held in memory are actually written
+            tempFile = newStagingFile().toAbsolutePath();
+            file.transferTo(tempFile.toFile());
+            ContentDigest contentDigest = digest(tempFile);
+            String empreinte = contentDigest.empreinte();
+
+            Path staged = tempFile;
+            Optional<StoredBlob> existing = referenceExisting(empreinte, key -> storageBackend.put(key, staged));
+            if (existing.isPresent()) {
+                AppLogger.debug(String.format("Deduplicated upload onto blob %s", empreinte));
+                return existing.get();
+            }
+
+            long taille = Files.size(tempFile);
+            compressed = compressIfWorthwhile(tempFile);
+            Path stored = compressed != null ? compressed : tempFile;
+            long tailleStockee = Files.size(stored);
+            String key = resolveBlobKey(empreinte);
+            Long intentId = storageIntents.begin(key);
+            storageBackend.put(key, stored);
+
+            StoredBlob blob = insertAndReference(newBlob(contentDigest, key, taille, tailleStockee, compressed != null));
+            storageIntents.complete(intentId);
+            return blob;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new BusinessException("FILE_SAVE_ERROR",
+                    "Erreur lors de l'enregistrement du fichier: " + e.getMessage());
+        } finally {
+            deleteQuietly(tempFile);
+            deleteQuietly(compressed);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Resource open(String empreinteSha256) {
+        StoredBlob blob = storedBlobRepository.findByEmpreinteSha256(empreinteSha256)
+                .orElseThrow(() -> new BusinessException("FILE_READ_ERROR",
+                        "Erreur lors de la lecture du fichier: contenu introuvable"));
+        return open(blob);
+    }
+
+    @Override
+    public Resource open(StoredBlob blob) {
+        // Blob content never changes once written, so its creation date is its last modification
+        long lastModified = blob.getCreatedAt() != null
+                ? blob.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : 0L;
+        return new StorageResource(storageBackend, blob.getCheminFichier(), blob.getTailleFichier(), lastModified,
+                blob.isCompressed());
+    }
+
+    @Override
+    public long recordCrc32(StoredBlob blob) {
+        // The resource inflates compressed blobs, so this is the CRC of the original content
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[DIGEST_BUFFER_SIZE];
+        try (InputStream in = open(blob).getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new BusinessException("FILE_READ_ERROR",
+                    "Erreur lors de la lecture du fichier: " + e.getMessage());
+        }
+
+        long value = crc.getValue();
+        // Its own transaction, so read-only callers (exports) can record it too
+        newTransaction().executeWithoutResult(status -> storedBlobRepository.updateCrc32(blob.getId(), value));
+        blob.setCrc32(value);
+        return value;
+    }
+
+    @Override
+    @Transactional
+    public void release(String empreinteSha256) {
+        storedBlobRepository.findByEmpreinteSha256(empreinteSha256).ifPresent(blob -> {
+            storedBlobRepository.decrementReferences(blob.getId());
+            Integer remaining = storedBlobRepository.findReferenceCount(blob.getId());
+            if (remaining != null && remaining > 0) {
+                return;
+            }
+
+            // The row outlives this transaction: the reap re-checks, under the row lock, that no
+            // upload of the same content referenced it again in the meantime
+            Long blobId = blob.getId();
+            afterCommit(() -> reapIfUnreferenced(blobId));
+        });
+    }
+
+    @Override
+    @Transactional
+    public StoredBlob adopt(Path file) {
+        try {
+            ContentDigest contentDigest = digest(file);
+            String empreinte = contentDigest.empreinte();
+
+            Optional<StoredBlob> existing = referenceExisting(empreinte, key -> putWithRollback(key, file));
+            if (existing.isPresent()) {
+                afterCommit(() -> deleteQuietly(file));
+                return existing.get();
+            }
+
+            long taille = Files.size(file);
+            String key = resolveBlobKey(empreinte);
+            Path compressed = compressIfWorthwhile(file);
+            Long intentId = storageIntents.begin(key);
+            long tailleStockee;
+            if (compressed == null) {
+                tailleStockee = taille;
+                putWithRollback(key, file);
+            } else {
+                try {
+                    tailleStockee = Files.size(compressed);
+                    storageBackend.put(key, compressed);
+                } finally {
+                    deleteQuietly(compressed);
+                }
+                onCompletion(() -> deleteQuietly(file), () -> deleteObjectQuietly(key));
+            }
+
+            StoredBlob blob = insertAndReference(newBlob(contentDigest, key, taille, tailleStockee, compressed != null));
+            storageIntents.complete(intentId);
+            return blob;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new BusinessException("FILE_SAVE_ERROR",
+                    "Erreur lors de la migration du fichier: " + e.getMessage());
+        }
+    }
+
+    @Override
+    @Transactional
+    public boolean relocate(StoredBlob blob) {
+        String current = blob.getCheminFichier();
+        String expected = resolveBlobKey(blob.getEmpreinteSha256());
+        if (current.equals(expected)) {
+            return false;
+        }
+
+        Long intentId = storageIntents.begin(expected);
+        try {
+            Path legacyFile = Paths.get(current);
+            if (Files.isRegularFile(legacyFile)) {
+                // Blobs written before the storage backend existed hold a local path
+                putWithRollback(expected, legacyFile);
+            } else {
+                Path tempFile = newStagingFile();
+                try {
+                    try (InputStream in = storageBackend.get(current)) {
+                        Files.copy(in, tempFile);
+                    }
+                    storageBackend.put(expected, tempFile);
+                } finally {
+                    deleteQuietly(tempFile);
+                }
+                onCompletion(() -> deleteObjectQuietly(current), () -> deleteObjectQuietly(expected));
+            }
+        } catch (IOException e) {
+            throw new BusinessException("FILE_SAVE_ERROR",
+                    "Erreur lors du déplacement du fichier: " + e.getMessage());
+        }
+        blob.setCheminFichier(expected);
+        storedBlobRepository.save(blob);
+        storageIntents.complete(intentId);
+        return true;
+    }
+
+    private StoredBlob newBlob(ContentDigest digest, String key, long taille, long tailleStockee, boolean compressed) {
+        return StoredBlob.builder()
+                .empreinteSha256(digest.empreinte())
+                .crc32(digest.crc32())
+                .cheminFichier(key)
+                .tailleFichier(taille)
+                .compression(compressed ? StoredBlob.Compression.DEFLATE : StoredBlob.Compression.NONE)
+                .tailleStockee(tailleStockee)
+                .nombreReferences(0)
+                .build();
+    }
+
+    /**
+     * Reference the blob already holding some content, locking its row so that a concurrent
+     * release cannot reap it in between.
+     *
+     * @param writer Writes the content under the blob key, if it has to be written again
+     * @return The referenced blob, or empty if the content is not stored yet
+     */
+    private Optional<StoredBlob> referenceExisting(String empreinte, ContentWriter writer) throws IOException {
+        Optional<StoredBlob> existing = storedBlobRepository.findByEmpreinteSha256ForUpdate(empreinte);
+        if (existing.isEmpty()) {
+            return existing;
+        }
+
+        StoredBlob blob = existing.get();
+        if (blob.getNombreReferences() <= 0) {
+            if (!storageBackend.exists(blob.getCheminFichier())) {
+                // A reap deleted the content but its transaction did not commit: write it back, uncompressed
+                writer.write(blob.getCheminFichier());
+                blob.setCompression(StoredBlob.Compression.NONE);
+                blob.setTailleStockee(blob.getTailleFichier());
+            }
+            reapOnRollback(blob.getId());
+        }
+        blob.setNombreReferences(blob.getNombreReferences() + 1);
+        return existing;
+    }
+
+    /**
+     * Insert a blob row, without references, in its own transaction, then reference it from the
+     * caller's one. When a concurrent upload of the same content inserted its row first, the
+     * unique digest rejects this one and the winning row is referenced instead. The row outlives
+     * a rollback of the caller, so it is reaped then if nothing else references it.
+     */
+    private StoredBlob insertAndReference(StoredBlob candidate) {
+        try {
+            newTransaction().executeWithoutResult(status -> storedBlobRepository.saveAndFlush(candidate));
+        } catch (DataIntegrityViolationException e) {
+            AppLogger.debug(String.format("Blob %s inserted concurrently, referencing it",
+                    candidate.getEmpreinteSha256()));
+        }
+
+        StoredBlob blob = storedBlobRepository.findByEmpreinteSha256ForUpdate(candidate.getEmpreinteSha256())
+                .orElseThrow(() -> new BusinessException("FILE_SAVE_ERROR",
+                        "Erreur lors de l'enregistrement du fichier: contenu introuvable"));
+        blob.setNombreReferences(blob.getNombreReferences() + 1);
+        reapOnRollback(blob.getId());
+        return blob;
+    }
+
+    /**
+     * Delete a blob and its content, unless an upload referenced it again since.
+     * The content goes before the commit, while the row lock keeps uploads of the same content
+     * waiting; they find no row afterwards and write the content anew.
+     */
+    @Override
+    public boolean reapIfUnreferenced(Long blobId) {
+        try {
+            return Boolean.TRUE.equals(newTransaction().execute(status -> storedBlobRepository.findByIdForUpdate(blobId)
+                    .filter(blob -> blob.getNombreReferences() <= 0)
+                    .map(blob -> {
+                        storedBlobRepository.delete(blob);
+                        storedBlobRepository.flush();
+                        try {
+                            storageBackend.delete(blob.getCheminFichier());
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        return true;
+                    })
+                    .orElse(false)));
+        } catch (RuntimeException e) {
+            AppLogger.error(String.format("Failed to reap blob %d: %s", blobId, e.getMessage()));
+            return false;
+        }
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    /**
+     * Deflate a staged file into a new staging file when its format is configured for
+     * compression and the result is small enough to be worth it.
+     *
+     * @return The compressed file, or null to store the content as is
+     */
+    private Path compressIfWorthwhile(Path content) throws IOException {
+        if (!compressionEnabled || !isCompressible(content)) {
+            return null;
+        }
+
+        Path compressed = newStagingFile();
+        Deflater deflater = new Deflater(compressionLevel);
+        try (InputStream in = Files.newInputStream(content);
+             OutputStream out = new DeflaterOutputStream(Files.newOutputStream(compressed), deflater, COMPRESSION_BUFFER_SIZE)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            deleteQuietly(compressed);
+            throw e;
+        } finally {
+            deflater.end();
+        }
+
+        long taille = Files.size(content);
+        long tailleStockee = Files.size(compressed);
+        if (tailleStockee * 100 > taille * (100 - compressionMinSavingsPercent)) {
+            deleteQuietly(compressed);
+            return null;
+        }
+        AppLogger.debug(String.format("Compressed blob from %d to %d bytes", taille, tailleStockee));
+        return compressed;
+    }
+
+    private boolean isCompressible(Path content) throws IOException {
+        byte[] header;
+        try (InputStream in = Files.newInputStream(content)) {
+            header = in.readNBytes(FileSignature.HEADER_LENGTH);
+        }
+        return FileSignature.detect(header)
+                .map(signature -> Arrays.asList(compressionTypes).contains(signature.name()))
+                .orElse(false);
+    }
+
+    private String resolveBlobKey(String empreinte) {
+        // ab/cd/abcd... with the default depth and width of 2
+        StringBuilder key = new StringBuilder();
+        for (int level = 0; level < shardDepth; level++) {
+            key.append(empreinte, level * shardWidth, (level + 1) * shardWidth).append('/');
+        }
+        return key.append(empreinte).toString();
+    }
+
+    private Path newStagingFile() throws IOException {
+        Path tempDir = Paths.get(stagingDir);
+        Files.createDirectories(tempDir);
+        return tempDir.resolve(UUID.randomUUID().toString());
+    }
+
+    private ContentDigest digest(Path file) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        // CRC-32 is computed in the same pass for the ZIP export, which must know it up front
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(DIGEST_BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.rewind();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return new ContentDigest(HexFormat.of().formatHex(digest.digest()), crc.getValue());
+    }
+
+    /**
+     * Put a local file that rows still point to: it is removed once the transaction commits,
+     * and restored from the backend if it rolls back.
+     */
+    private void putWithRollback(String key, Path source) throws IOException {
+        storageBackend.put(key, source);
+        onCompletion(() -> deleteQuietly(source), () -> {
+            try {
+                if (!Files.exists(source)) {
+                    try (InputStream in = storageBackend.get(key)) {
+                        Files.copy(in, source);
+                    }
+                }
+                storageBackend.delete(key);
+            } catch (IOException e) {
+                AppLogger.error(String.format("Failed to restore %s after rollback", source));
+            }
+        });
+    }
+
+    private void reapOnRollback(Long blobId) {
+        onCompletion(() -> { }, () -> reapIfUnreferenced(blobId));
+    }
+
+    private void afterCommit(Runnable action) {
+        onCompletion(action, () -> { });
+    }
+
+    private void onCompletion(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else if (status == STATUS_ROLLED_BACK) {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+
+    private void deleteObjectQuietly(String key) {
+        try {
+            storageBackend.delete(key);
+        } catch (IOException e) {
+            AppLogger.error(String.format("Failed to delete object: %s", key));
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            AppLogger.error(String.format("Failed to delete: %s", path.getFileName()));
+        }
+    }
+
+    private record ContentDigest(String empreinte, long crc32) {
+    }
+
+    @FunctionalInterface
+    private interface ContentWriter {
+        void write(String key) throws IOException;
+    }
+}
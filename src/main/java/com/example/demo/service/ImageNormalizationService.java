@@ -0,0 +1,213 @@
+package com.example.demo.service;
+
+import com.example.demo.contract.DocumentPreviewContract;
+import com.example.demo.contract.DocumentStorageContract;
+import com.example.demo.contract.ImageNormalizationContract;
+import com.example.demo.entity.Document;
+import com.example.demo.entity.StoredBlob;
+import com.example.demo.event.DocumentStoredEvent;
+import com.example.demo.repository.DocumentRepository;
+import com.example.demo.util.AppLogger;
+import com.example.demo.util.FileSignature;
+import com.example.demo.util.ImageRenditions;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Post-ingest downscaling of oversized JPEG/PNG uploads (typically phone photos of receipts).
+ * Runs after the upload transaction commits, on a bounded pool, and swaps the document onto
+ * a re-encoded blob; the original blob is kept only when the policy asks for it.
+ */
+@Service
+public class ImageNormalizationService implements ImageNormalizationContract {
+
+    private static final String JPEG_EXTENSION = ".jpg";
+
+    private final DocumentRepository documentRepository;
+    private final DocumentStorageContract documentStorage;
+    private final DocumentPreviewContract documentPreview;
+    private final TaskExecutor normalizationExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${documents.normalization.enabled:false}")
+    private boolean enabled;
+
+    @Value("${documents.normalization.types:TICKET_CAISSE}")
+    private String[] types;
+
+    // Longest side, in pixels, of the re-encoded image; smaller images are left alone
+    @Value("${documents.normalization.max-dimension:2000}")
+    private int maxDimension;
+
+    // Images declaring more pixels are kept as uploaded rather than decoded (decompression bombs)
+    @Value("${documents.normalization.max-pixels:40000000}")
+    private long maxPixels;
+
+    @Value("${documents.normalization.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    // Keep the untouched upload referenced by the document (Document.empreinteOriginale)
+    @Value("${documents.normalization.keep-original:false}")
+    private boolean keepOriginal;
+
+    @Value("${documents.storage.staging-dir:uploads/documents/blobs/.tmp}")
+    private String stagingDir;
+
+    public ImageNormalizationService(DocumentRepository documentRepository,
+            DocumentStorageContract documentStorage,
+            DocumentPreviewContract documentPreview,
+            @Qualifier("normalizationExecutor") TaskExecutor normalizationExecutor,
+            PlatformTransactionManager transactionManager) {
+        this.documentRepository = documentRepository;
+        this.documentStorage = documentStorage;
+        this.documentPreview = documentPreview;
+        this.normalizationExecutor = normalizationExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @TransactionalEventListener
+    public void onDocumentStored(DocumentStoredEvent event) {
+        if (!enabled || event.typeDocument() == null
+                || !Arrays.asList(types).contains(event.typeDocument().name())) {
+            return;
+        }
+        try {
+            normalizationExecutor.execute(() -> normalizeQuietly(event.documentId()));
+        } catch (TaskRejectedException e) {
+            AppLogger.warn(String.format("Normalization queue full, document %d kept as uploaded",
+                    event.documentId()));
+        }
+    }
+
+    @Override
+    public boolean normalize(Long documentId) {
+        Document document = documentRepository.findById(documentId).orElse(null);
+        if (document == null || document.getEmpreinteSha256() == null
+                || document.getStatut() != Document.StatutDocument.EN_ATTENTE) {
+            return false;
+        }
+        String original = document.getEmpreinteSha256();
+
+        Path normalized = null;
+        try {
+            normalized = reencode(documentStorage.open(original));
+            if (normalized == null || Files.size(normalized) >= document.getTailleFichier()) {
+                return false;
+            }
+
+            Path content = normalized;
+            Boolean replaced = transactionTemplate.execute(status -> replaceContent(documentId, original, content));
+            if (Boolean.TRUE.equals(replaced)) {
+                documentPreview.evict(documentId);
+                return true;
+            }
+            return false;
+        } catch (IOException e) {
+            AppLogger.error(String.format("Normalization of document %d failed: %s", documentId, e.getMessage()));
+            return false;
+        } finally {
+            deleteQuietly(normalized);
+        }
+    }
+
+    /**
+     * @return A staging file holding the downscaled JPEG, or null if the content is not an oversized image
+     */
+    private Path reencode(Resource resource) throws IOException {
+        BufferedImage image;
+        try (InputStream in = new BufferedInputStream(resource.getInputStream())) {
+            in.mark(FileSignature.HEADER_LENGTH);
+            FileSignature signature = FileSignature.detect(in.readNBytes(FileSignature.HEADER_LENGTH)).orElse(null);
+            if (signature != FileSignature.JPEG && signature != FileSignature.PNG) {
+                return null;
+            }
+            in.reset();
+            image = ImageRenditions.readImage(in, maxPixels, 0);
+        } catch (ImageRenditions.ImageTooLargeException e) {
+            AppLogger.warn("Normalization skipped, original kept: " + e.getMessage());
+            return null;
+        }
+        if (Math.max(image.getWidth(), image.getHeight()) <= maxDimension) {
+            return null;
+        }
+
+        Path stagingPath = Files.createDirectories(Paths.get(stagingDir));
+        Path target = stagingPath.resolve(UUID.randomUUID().toString()).toAbsolutePath();
+        ImageRenditions.writeJpeg(ImageRenditions.downscale(image, maxDimension), target, jpegQuality);
+        return target;
+    }
+
+    private boolean replaceContent(Long documentId, String original, Path content) {
+        // Locked so a validation cannot commit between this check and the swap
+        Document document = documentRepository.findByIdForUpdate(documentId).orElse(null);
+        if (document == null || !Objects.equals(document.getEmpreinteSha256(), original)) {
+            // Deleted or already replaced while the image was being re-encoded
+            return false;
+        }
+        if (document.getStatut() != Document.StatutDocument.EN_ATTENTE) {
+            // Processed documents are served with immutable caching, their content must not change
+            return false;
+        }
+
+        StoredBlob blob = documentStorage.adopt(content);
+        if (keepOriginal) {
+            document.setEmpreinteOriginale(original);
+        } else {
+            documentStorage.release(original);
+        }
+
+        long tailleOriginale = document.getTailleFichier();
+        document.setCheminFichier(blob.getCheminFichier());
+        document.setEmpreinteSha256(blob.getEmpreinteSha256());
+        document.setTailleFichier(blob.getTailleFichier());
+        document.setNomFichierOriginal(withJpegExtension(document.getNomFichierOriginal()));
+        documentRepository.save(document);
+
+        AppLogger.info(String.format("Normalized document %d from %d to %d bytes",
+                documentId, tailleOriginale, blob.getTailleFichier()));
+        return true;
+    }
+
+    private void normalizeQuietly(Long documentId) {
+        try {
+            normalize(documentId);
+        } catch (Exception e) {
+            AppLogger.error(String.format("Normalization of document %d failed: %s - %s",
+                    documentId, e.getClass().getSimpleName(), e.getMessage()));
+        }
+    }
+
+    private static String withJpegExtension(String filename) {
+        int lastDot = filename.lastIndexOf('.');
+        return (lastDot == -1 ? filename : filename.substring(0, lastDot)) + JPEG_EXTENSION;
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            AppLogger.error(String.format("Failed to delete: %s", path.getFileName()));
+        }
+    }
+}
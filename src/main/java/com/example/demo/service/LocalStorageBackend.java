@@ -0,0 +1,143 @@
+package com.example.demo.service;
+
+import com.example.demo.contract.StorageBackend;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+@ConditionalOnProperty(name = "documents.storage.backend", havingValue = "local", matchIfMissing = true)
+public class LocalStorageBackend implements StorageBackend {
+
+    @Value("${documents.storage.blob-dir:uploads/documents/blobs}")
+    private String blobDir;
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Source on another file system: copy then delete
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public InputStream getRange(String key, long offset, long length) throws IOException {
+        FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ);
+        channel.position(offset);
+        InputStream in = Channels.newInputStream(channel);
+        return new FilterInputStream(in) {
+            private long remaining = length;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int b = super.read();
+                if (b >= 0) {
+                    remaining--;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int off, int len) throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int read = super.read(buffer, off, (int) Math.min(len, remaining));
+                if (read > 0) {
+                    remaining -= read;
+                }
+                return read;
+            }
+        };
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(resolve(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public List<String> list(String startAfter, int maxKeys) throws IOException {
+        List<String> keys = new ArrayList<>(maxKeys);
+        Path root = Paths.get(blobDir);
+        if (Files.isDirectory(root)) {
+            collect(root, "", startAfter, maxKeys, keys);
+        }
+        return keys;
+    }
+
+    /**
+     * Depth-first walk in name order, skipping whole directories that sort before startAfter,
+     * so a page costs the directories it touches rather than a walk of the whole tree
+     */
+    private void collect(Path dir, String prefix, String startAfter, int maxKeys, List<String> keys)
+            throws IOException {
+        List<Path> entries;
+        try (Stream<Path> children = Files.list(dir)) {
+            entries = children
+                    // Hidden entries hold staging files, not objects
+                    .filter(child -> !child.getFileName().toString().startsWith("."))
+                    .sorted(Comparator.comparing(child -> child.getFileName().toString()))
+                    .toList();
+        }
+
+        for (Path entry : entries) {
+            if (keys.size() >= maxKeys) {
+                return;
+            }
+            String key = prefix + entry.getFileName();
+            if (Files.isDirectory(entry)) {
+                String dirPrefix = key + "/";
+                boolean before = startAfter != null && dirPrefix.compareTo(startAfter) < 0
+                        && !startAfter.startsWith(dirPrefix);
+                if (!before) {
+                    collect(entry, dirPrefix, startAfter, maxKeys, keys);
+                }
+            } else if (startAfter == null || key.compareTo(startAfter) > 0) {
+                keys.add(key);
+            }
+        }
+    }
+
+    private Path resolve(String key) {
+        Path root = Paths.get(blobDir).toAbsolutePath().normalize();
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+        return path;
+    }
+}
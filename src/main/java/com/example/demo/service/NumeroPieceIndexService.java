@@ -0,0 +1,71 @@
+package com.example.demo.service;
+
+import com.example.demo.contract.NumeroPieceIndexContract;
+import com.example.demo.repository.DocumentRepository;
+import com.example.demo.util.AppLogger;
+import com.example.demo.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class NumeroPieceIndexService implements NumeroPieceIndexContract {
+
+    private final DocumentRepository documentRepository;
+
+    @Value("${documents.numero-index.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${documents.numero-index.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private BloomFilter filter;
+
+    // Until warm-up completes every number is a possible hit, so callers fall back to the database
+    private volatile boolean ready;
+
+    @PostConstruct
+    void init() {
+        filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        AppLogger.info("Warming up numero piece index...");
+        AtomicLong count = new AtomicLong();
+
+        try (Stream<String> numeros = documentRepository.streamAllNumeroPieces()) {
+            numeros.forEach(numero -> {
+                filter.put(numero);
+                count.incrementAndGet();
+            });
+        }
+        ready = true;
+
+        if (count.get() > expectedInsertions) {
+            AppLogger.warn(String.format("Numero piece index holds %d entries for %d expected, "
+                    + "raise documents.numero-index.expected-insertions", count.get(), expectedInsertions));
+        }
+        AppLogger.success(String.format("Numero piece index ready: %d entries, %d bits, %d hash functions",
+                count.get(), filter.getBitSize(), filter.getHashFunctions()));
+    }
+
+    @Override
+    public boolean mightContain(String numeroPiece) {
+        return !ready || filter.mightContain(numeroPiece);
+    }
+
+    @Override
+    public void add(String numeroPiece) {
+        filter.put(numeroPiece);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of numéros de pièce currently being uploaded on this node. A number is reserved
+ * before any file is written, so a concurrent upload of the same piece (typically a client
+ * retry) fails fast instead of writing a file and dying on the unique constraint.
+ */
+@Service
+public class NumeroPieceReservationService {
+
+    private final Set<String> reserved = ConcurrentHashMap.newKeySet();
+
+    public boolean reserve(String numeroPiece) {
+        return reserved.add(numeroPiece);
+    }
+
+    public void release(String numeroPiece) {
+        reserved.remove(numeroPiece);
+    }
+
+    /**
+     * Release reservations once the current transaction has completed, so the row is
+     * visible to other uploads before its number can be taken again. Releases
+     * immediately when no transaction is active.
+     */
+    public void releaseAfterCompletion(Collection<String> numerosPiece) {
+        List<String> numeros = List.copyOf(numerosPiece);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            numeros.forEach(this::release);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                numeros.forEach(NumeroPieceReservationService.this::release);
+            }
+        });
+    }
+}
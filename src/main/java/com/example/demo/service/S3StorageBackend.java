@@ -0,0 +1,420 @@
+package com.example.demo.service;
+
+import com.example.demo.contract.StorageBackend;
+import com.example.demo.util.AppLogger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * S3-compatible backend (AWS S3, MinIO, ...) speaking the REST API directly with
+ * path-style addressing and Signature V4. Files larger than one part are sent with
+ * a multipart upload whose parts are uploaded in parallel.
+ */
+@Service
+@ConditionalOnProperty(name = "documents.storage.backend", havingValue = "s3")
+public class S3StorageBackend implements StorageBackend {
+
+    private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final Pattern UPLOAD_ID = Pattern.compile("<UploadId>([^<]+)</UploadId>");
+    private static final Pattern LIST_KEY = Pattern.compile("<Key>([^<]+)</Key>");
+
+    @Value("${documents.storage.s3.endpoint:http://localhost:9000}")
+    private String endpoint;
+
+    @Value("${documents.storage.s3.region:us-east-1}")
+    private String region;
+
+    @Value("${documents.storage.s3.bucket:documents}")
+    private String bucket;
+
+    @Value("${documents.storage.s3.access-key:}")
+    private String accessKey;
+
+    @Value("${documents.storage.s3.secret-key:}")
+    private String secretKey;
+
+    // S3 requires at least 5 MB for every part but the last
+    @Value("${documents.storage.s3.part-size:8388608}")
+    private long partSize;
+
+    @Value("${documents.storage.s3.upload-concurrency:4}")
+    private int uploadConcurrency;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        long size = Files.size(source);
+        if (size <= partSize) {
+            HttpResponse<String> response = send(request("PUT", key, Map.of(),
+                    HttpRequest.BodyPublishers.ofFile(source)), HttpResponse.BodyHandlers.ofString());
+            requireSuccess(response, "PUT " + key);
+            return;
+        }
+        putMultipart(key, source, size);
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        HttpResponse<InputStream> response = send(request("GET", key, Map.of(), null),
+                HttpResponse.BodyHandlers.ofInputStream());
+        return requireBody(response, key);
+    }
+
+    @Override
+    public InputStream getRange(String key, long offset, long length) throws IOException {
+        if (length <= 0) {
+            return InputStream.nullInputStream();
+        }
+        HttpRequest.Builder builder = request("GET", key, Map.of(), null)
+                .header("Range", String.format("bytes=%d-%d", offset, offset + length - 1));
+        HttpResponse<InputStream> response = send(builder, HttpResponse.BodyHandlers.ofInputStream());
+        InputStream in = requireBody(response, key);
+        if (response.statusCode() == 200) {
+            // Server ignored the Range header and sends the whole object: cut the range out of it
+            in.skipNBytes(offset);
+            return new BoundedInputStream(in, length);
+        }
+        return in;
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        HttpResponse<Void> response = send(request("HEAD", key, Map.of(), null),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) {
+            return false;
+        }
+        requireSuccess(response, "HEAD " + key);
+        return true;
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        HttpResponse<String> response = send(request("DELETE", key, Map.of(), null),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 404) {
+            requireSuccess(response, "DELETE " + key);
+        }
+    }
+
+    @Override
+    public List<String> list(String startAfter, int maxKeys) throws IOException {
+        Map<String, String> query = new TreeMap<>();
+        query.put("list-type", "2");
+        query.put("max-keys", String.valueOf(maxKeys));
+        if (startAfter != null) {
+            query.put("start-after", startAfter);
+        }
+
+        HttpResponse<String> response = send(request("GET", "", query, null), HttpResponse.BodyHandlers.ofString());
+        requireSuccess(response, "ListObjectsV2");
+
+        List<String> keys = new ArrayList<>();
+        Matcher matcher = LIST_KEY.matcher(response.body());
+        while (matcher.find()) {
+            keys.add(unescapeXml(matcher.group(1)));
+        }
+        return keys;
+    }
+
+    private void putMultipart(String key, Path source, long size) throws IOException {
+        HttpResponse<String> created = send(request("POST", key, Map.of("uploads", ""),
+                HttpRequest.BodyPublishers.noBody()), HttpResponse.BodyHandlers.ofString());
+        requireSuccess(created, "CreateMultipartUpload " + key);
+        Matcher matcher = UPLOAD_ID.matcher(created.body());
+        if (!matcher.find()) {
+            throw new IOException("CreateMultipartUpload " + key + ": no UploadId in response");
+        }
+        String uploadId = matcher.group(1);
+
+        try {
+            List<String> etags = uploadParts(key, source, size, uploadId);
+
+            StringBuilder manifest = new StringBuilder("<CompleteMultipartUpload>");
+            for (int i = 0; i < etags.size(); i++) {
+                manifest.append("<Part><PartNumber>").append(i + 1).append("</PartNumber><ETag>")
+                        .append(etags.get(i)).append("</ETag></Part>");
+            }
+            manifest.append("</CompleteMultipartUpload>");
+
+            HttpResponse<String> completed = send(request("POST", key, Map.of("uploadId", uploadId),
+                    HttpRequest.BodyPublishers.ofString(manifest.toString())), HttpResponse.BodyHandlers.ofString());
+            requireSuccess(completed, "CompleteMultipartUpload " + key);
+            // S3 may report a failure with a 200 status once the response has started
+            if (completed.body().contains("<Error>")) {
+                throw new IOException("CompleteMultipartUpload " + key + " failed: " + completed.body());
+            }
+        } catch (IOException | RuntimeException e) {
+            abortQuietly(key, uploadId);
+            throw e;
+        }
+    }
+
+    private List<String> uploadParts(String key, Path source, long size, String uploadId) throws IOException {
+        int partCount = (int) ((size + partSize - 1) / partSize);
+        Semaphore permits = new Semaphore(Math.max(1, uploadConcurrency));
+        List<CompletableFuture<String>> parts = new ArrayList<>(partCount);
+
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            for (int part = 1; part <= partCount; part++) {
+                long offset = (part - 1) * partSize;
+                byte[] content = readPart(channel, offset, (int) Math.min(partSize, size - offset));
+
+                permits.acquire();
+                Map<String, String> query = Map.of("partNumber", String.valueOf(part), "uploadId", uploadId);
+                String description = "UploadPart " + part + " of " + key;
+                parts.add(httpClient.sendAsync(request("PUT", key, query, HttpRequest.BodyPublishers.ofByteArray(content))
+                                .build(), HttpResponse.BodyHandlers.ofString())
+                        .whenComplete((response, error) -> permits.release())
+                        .thenApply(response -> {
+                            if (response.statusCode() / 100 != 2) {
+                                throw new IllegalStateException(description + " failed with status " + response.statusCode());
+                            }
+                            return response.headers().firstValue("ETag")
+                                    .orElseThrow(() -> new IllegalStateException(description + ": no ETag"));
+                        }));
+            }
+
+            List<String> etags = new ArrayList<>(partCount);
+            for (CompletableFuture<String> part : parts) {
+                etags.add(part.get());
+            }
+            return etags;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            parts.forEach(part -> part.cancel(true));
+            throw new InterruptedIOException("Multipart upload of " + key + " interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private byte[] readPart(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file while reading part at " + offset);
+            }
+        }
+        return buffer.array();
+    }
+
+    private void abortQuietly(String key, String uploadId) {
+        try {
+            send(request("DELETE", key, Map.of("uploadId", uploadId), null), HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            AppLogger.error(String.format("Failed to abort multipart upload %s of %s", uploadId, key));
+        }
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest.Builder builder, HttpResponse.BodyHandler<T> handler)
+            throws IOException {
+        try {
+            return httpClient.send(builder.build(), handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("S3 request interrupted");
+        }
+    }
+
+    private void requireSuccess(HttpResponse<?> response, String operation) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException(String.format("%s failed with status %d", operation, response.statusCode()));
+        }
+    }
+
+    private InputStream requireBody(HttpResponse<InputStream> response, String key) throws IOException {
+        if (response.statusCode() / 100 == 2) {
+            return response.body();
+        }
+        response.body().close();
+        if (response.statusCode() == 404) {
+            throw new NoSuchFileException(key);
+        }
+        throw new IOException(String.format("GET %s failed with status %d", key, response.statusCode()));
+    }
+
+    /**
+     * Build a request signed with AWS Signature V4. The payload is left unsigned
+     * (UNSIGNED-PAYLOAD) so bodies are streamed without being hashed first.
+     */
+    private HttpRequest.Builder request(String method, String key, Map<String, String> query,
+                                        HttpRequest.BodyPublisher body) {
+        URI base = URI.create(endpoint);
+        String canonicalUri = "/" + encode(bucket) + "/" + encodePath(key);
+        String canonicalQuery = new TreeMap<>(query).entrySet().stream()
+                .map(entry -> encode(entry.getKey()) + "=" + encode(entry.getValue()))
+                .collect(Collectors.joining("&"));
+        String host = base.getPort() == -1 ? base.getHost() : base.getHost() + ":" + base.getPort();
+
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        String amzDate = AMZ_DATE.format(now);
+        String dateStamp = amzDate.substring(0, 8);
+        String scope = dateStamp + "/" + region + "/s3/aws4_request";
+        String signedHeaders = "host;x-amz-content-sha256;x-amz-date";
+
+        String canonicalRequest = method + "\n"
+                + canonicalUri + "\n"
+                + canonicalQuery + "\n"
+                + "host:" + host + "\n"
+                + "x-amz-content-sha256:" + UNSIGNED_PAYLOAD + "\n"
+                + "x-amz-date:" + amzDate + "\n"
+                + "\n"
+                + signedHeaders + "\n"
+                + UNSIGNED_PAYLOAD;
+        String stringToSign = "AWS4-HMAC-SHA256\n" + amzDate + "\n" + scope + "\n" + sha256Hex(canonicalRequest);
+
+        byte[] signingKey = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), dateStamp);
+        signingKey = hmac(signingKey, region);
+        signingKey = hmac(signingKey, "s3");
+        signingKey = hmac(signingKey, "aws4_request");
+        String signature = HexFormat.of().formatHex(hmac(signingKey, stringToSign));
+
+        String uri = base.getScheme() + "://" + host + canonicalUri + (canonicalQuery.isEmpty() ? "" : "?" + canonicalQuery);
+        return HttpRequest.newBuilder(URI.create(uri))
+                .timeout(Duration.ofMinutes(5))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : body)
+                .header("x-amz-content-sha256", UNSIGNED_PAYLOAD)
+                .header("x-amz-date", amzDate)
+                .header("Authorization", String.format(
+                        "AWS4-HMAC-SHA256 Credential=%s/%s, SignedHeaders=%s, Signature=%s",
+                        accessKey, scope, signedHeaders, signature));
+    }
+
+    private static String unescapeXml(String value) {
+        return value.replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&apos;", "'")
+                .replace("&amp;", "&");
+    }
+
+    private static String encodePath(String key) {
+        return Arrays.stream(key.split("/"))
+                .map(S3StorageBackend::encode)
+                .collect(Collectors.joining("/"));
+    }
+
+    private static String encode(String value) {
+        // RFC 3986 unreserved characters only, as required by Signature V4
+        return URLEncoder.encode(value, StandardCharsets.UTF_8)
+                .replace("+", "%20")
+                .replace("*", "%2A")
+                .replace("%7E", "~");
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String value) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads at most a given number of bytes from a stream; closing it closes the stream.
+     */
+    private static class BoundedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = in.read();
+            if (read != -1) {
+                remaining--;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = in.read(buffer, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
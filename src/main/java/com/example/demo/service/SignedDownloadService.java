@@ -0,0 +1,152 @@
+package com.example.demo.service;
+
+import com.example.demo.contract.SignedDownloadContract;
+import com.example.demo.contract.StorageBackend;
+import com.example.demo.dto.DocumentFileDTO;
+import com.example.demo.dto.SignedUrlDTO;
+import com.example.demo.entity.Document;
+import com.example.demo.entity.StoredBlob;
+import com.example.demo.entity.User;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.exception.InvalidTokenException;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.repository.DocumentRepository;
+import com.example.demo.repository.StoredBlobRepository;
+import com.example.demo.util.DocumentAccess;
+import com.example.demo.util.StorageResource;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+
+/**
+ * HMAC-signed download tokens. A token is {@code payload.signature}, both base64url, where the
+ * payload lists the expiry, the blob key, size, codec and date, and the file name.
+ */
+@Service
+@RequiredArgsConstructor
+public class SignedDownloadService implements SignedDownloadContract {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String FILES_PATH = "/api/files/";
+    private static final String SEPARATOR = "\n";
+    private static final int PAYLOAD_FIELDS = 6;
+
+    private final DocumentRepository documentRepository;
+    private final StoredBlobRepository storedBlobRepository;
+    private final StorageBackend storageBackend;
+
+    // Dedicated key, so leaking or rotating it never touches the JWT secret
+    @Value("${documents.signed-url.signing-key}")
+    private String signingKey;
+
+    @Value("${documents.signed-url.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    // Prefix of the minted URLs, e.g. a CDN host; relative URLs when empty
+    @Value("${documents.signed-url.base-url:}")
+    private String baseUrl;
+
+    @PostConstruct
+    void checkSigningKey() {
+        if (signingKey == null || signingKey.isBlank()) {
+            throw new IllegalStateException("documents.signed-url.signing-key must be set");
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SignedUrlDTO sign(Long documentId, User user) {
+        Document document = documentRepository.findById(documentId)
+                .filter(found -> DocumentAccess.canAccess(found, user))
+                .orElseThrow(() -> new ResourceNotFoundException("Document", documentId.toString()));
+        StoredBlob blob = document.getEmpreinteSha256() == null ? null
+                : storedBlobRepository.findByEmpreinteSha256(document.getEmpreinteSha256()).orElse(null);
+        if (blob == null) {
+            throw new BusinessException("SIGNED_URL_UNAVAILABLE",
+                    "Ce document n'est pas encore migré vers le stockage et ne peut pas être partagé par lien");
+        }
+
+        Instant expiresAt = Instant.now().plusSeconds(ttlSeconds);
+        long lastModified = blob.getCreatedAt() != null
+                ? blob.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : 0L;
+        String payload = String.join(SEPARATOR,
+                Long.toString(expiresAt.getEpochSecond()),
+                blob.getCheminFichier(),
+                Long.toString(blob.getTailleFichier()),
+                Boolean.toString(blob.isCompressed()),
+                Long.toString(lastModified),
+                document.getNomFichierOriginal().replace(SEPARATOR, " "));
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String token = encoder.encodeToString(payloadBytes) + "." + encoder.encodeToString(hmac(payloadBytes));
+
+        return SignedUrlDTO.builder()
+                .url(baseUrl + FILES_PATH + token)
+                .expiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()))
+                .build();
+    }
+
+    @Override
+    public DocumentFileDTO resolve(String token) {
+        int dot = token.indexOf('.');
+        byte[] payloadBytes;
+        byte[] signature;
+        try {
+            payloadBytes = Base64.getUrlDecoder().decode(token.substring(0, Math.max(dot, 0)));
+            signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTokenException("Malformed download token");
+        }
+        if (dot <= 0 || !MessageDigest.isEqual(hmac(payloadBytes), signature)) {
+            throw new InvalidTokenException("Invalid download token signature");
+        }
+
+        String[] fields = new String(payloadBytes, StandardCharsets.UTF_8).split(SEPARATOR, PAYLOAD_FIELDS);
+        if (fields.length != PAYLOAD_FIELDS) {
+            throw new InvalidTokenException("Malformed download token");
+        }
+        long expiresAt = Long.parseLong(fields[0]);
+        if (Instant.now().getEpochSecond() > expiresAt) {
+            throw new InvalidTokenException("Download token has expired");
+        }
+
+        String key = fields[1];
+        long contentLength = Long.parseLong(fields[2]);
+        long lastModified = Long.parseLong(fields[4]);
+        return DocumentFileDTO.builder()
+                .resource(new StorageResource(storageBackend, key, contentLength, lastModified,
+                        Boolean.parseBoolean(fields[3])))
+                .nomFichierOriginal(fields[5])
+                .contentLength(contentLength)
+                .lastModified(lastModified)
+                .expiresAt(expiresAt * 1000)
+                // Blob keys end with the content digest
+                .etag("\"" + key.substring(key.lastIndexOf('/') + 1) + "\"")
+                .build();
+    }
+
+    // Comptables work across sociétés; a société user only sees its own documents (reading
+    // the id of the lazy société does not load it)
+    private byte[] hmac(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(signingKey.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
+}
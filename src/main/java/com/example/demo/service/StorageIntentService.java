@@ -0,0 +1,37 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.StorageIntent;
+import com.example.demo.repository.StorageIntentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class StorageIntentService {
+
+    private final StorageIntentRepository storageIntentRepository;
+
+    /**
+     * Record, in its own committed transaction, that an object is about to be written,
+     * so the entry survives a rollback or a crash of the upload
+     *
+     * @param cheminFichier Storage key about to be written
+     * @return Id of the intent, to be passed to {@link #complete(Long)}
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Long begin(String cheminFichier) {
+        return storageIntentRepository.save(StorageIntent.builder().cheminFichier(cheminFichier).build()).getId();
+    }
+
+    /**
+     * Drop an intent within the caller's transaction: it disappears only if the blob row commits
+     *
+     * @param intentId Id returned by {@link #begin(String)}
+     */
+    @Transactional
+    public void complete(Long intentId) {
+        storageIntentRepository.deleteById(intentId);
+    }
+}
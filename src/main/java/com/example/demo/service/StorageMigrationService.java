@@ -0,0 +1,196 @@
+package com.example.demo.service;
+
+import com.example.demo.contract.DocumentStorageContract;
+import com.example.demo.contract.StorageMigrationContract;
+import com.example.demo.entity.Document;
+import com.example.demo.entity.StorageMigrationState;
+import com.example.demo.entity.StoredBlob;
+import com.example.demo.repository.DocumentRepository;
+import com.example.demo.repository.StorageMigrationStateRepository;
+import com.example.demo.repository.StoredBlobRepository;
+import com.example.demo.util.AppLogger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Online migration of stored files, one small batch per run so it never holds long
+ * transactions or competes with uploads. Each item migrates in its own transaction and the
+ * progress (phase and id cursor) is persisted with it, so a restart resumes where it stopped
+ * and one failing item is logged and skipped instead of stalling the migration.
+ */
+@Service
+public class StorageMigrationService implements StorageMigrationContract {
+
+    private final DocumentRepository documentRepository;
+    private final StoredBlobRepository storedBlobRepository;
+    private final StorageMigrationStateRepository stateRepository;
+    private final DocumentStorageContract documentStorage;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${documents.storage.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${documents.storage.migration.batch-size:200}")
+    private int batchSize;
+
+    // Loaded on the first run, then kept in step with the persisted row
+    private StorageMigrationState state;
+    private volatile boolean finished;
+
+    public StorageMigrationService(DocumentRepository documentRepository, StoredBlobRepository storedBlobRepository,
+            StorageMigrationStateRepository stateRepository, DocumentStorageContract documentStorage,
+            PlatformTransactionManager transactionManager) {
+        this.documentRepository = documentRepository;
+        this.storedBlobRepository = storedBlobRepository;
+        this.stateRepository = stateRepository;
+        this.documentStorage = documentStorage;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(initialDelayString = "${documents.storage.migration.delay-ms:5000}",
+            fixedDelayString = "${documents.storage.migration.delay-ms:5000}")
+    public void runScheduled() {
+        if (enabled && !finished) {
+            migrateNextBatch();
+        }
+    }
+
+    @Override
+    public synchronized int migrateNextBatch() {
+        if (state == null) {
+            state = stateRepository.findById(StorageMigrationState.ID).orElseGet(StorageMigrationState::start);
+        }
+        int moved = switch (state.getPhase()) {
+            case LEGACY -> migrateLegacyBatch();
+            case BLOBS -> relocateBlobBatch();
+            case CRC -> backfillCrcBatch();
+            case FINISHED -> 0;
+        };
+        finished = state.getPhase() == StorageMigrationState.Phase.FINISHED;
+        return moved;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished;
+    }
+
+    private int migrateLegacyBatch() {
+        List<Document> documents = documentRepository.findByEmpreinteSha256IsNullAndIdGreaterThanOrderByIdAsc(
+                state.getLastId(), PageRequest.of(0, batchSize));
+
+        int migrated = 0;
+        for (Document document : documents) {
+            // Files moved into the blob store are put back if the item rolls back (see DocumentStorageService.adopt)
+            boolean moved = migrateItem(document.getId(), "document " + document.getId(), () -> {
+                Path legacyFile = Paths.get(document.getCheminFichier());
+                if (!Files.isRegularFile(legacyFile)) {
+                    AppLogger.warn(String.format("Storage migration: file missing for document %d (%s)",
+                            document.getId(), document.getCheminFichier()));
+                    return false;
+                }
+                StoredBlob blob = documentStorage.adopt(legacyFile);
+                documentRepository.updateStockage(document.getId(), blob.getCheminFichier(),
+                        blob.getEmpreinteSha256(), blob.getTailleFichier());
+                return true;
+            });
+            migrated += moved ? 1 : 0;
+        }
+
+        if (migrated > 0) {
+            AppLogger.info(String.format("Storage migration: %d legacy documents moved to the blob store", migrated));
+        }
+        endBatch(documents.size());
+        return migrated;
+    }
+
+    private int relocateBlobBatch() {
+        List<StoredBlob> blobs = storedBlobRepository.findByIdGreaterThanOrderByIdAsc(
+                state.getLastId(), PageRequest.of(0, batchSize));
+
+        int relocated = 0;
+        for (StoredBlob blob : blobs) {
+            boolean moved = migrateItem(blob.getId(), "blob " + blob.getEmpreinteSha256(), () -> {
+                if (!documentStorage.relocate(blob)) {
+                    return false;
+                }
+                documentRepository.updateCheminFichierByEmpreinte(blob.getEmpreinteSha256(), blob.getCheminFichier());
+                return true;
+            });
+            relocated += moved ? 1 : 0;
+        }
+
+        if (relocated > 0) {
+            AppLogger.info(String.format("Storage migration: %d blobs moved to the current shard layout", relocated));
+        }
+        endBatch(blobs.size());
+        return relocated;
+    }
+
+    private int backfillCrcBatch() {
+        List<StoredBlob> blobs = storedBlobRepository.findByCrc32IsNullAndIdGreaterThanOrderByIdAsc(
+                state.getLastId(), PageRequest.of(0, batchSize));
+
+        int backfilled = 0;
+        for (StoredBlob blob : blobs) {
+            boolean moved = migrateItem(blob.getId(), "blob " + blob.getEmpreinteSha256(), () -> {
+                documentStorage.recordCrc32(blob);
+                return true;
+            });
+            backfilled += moved ? 1 : 0;
+        }
+
+        if (backfilled > 0) {
+            AppLogger.info(String.format("Storage migration: CRC-32 recorded for %d blobs", backfilled));
+        }
+        endBatch(blobs.size());
+        if (state.getPhase() == StorageMigrationState.Phase.FINISHED) {
+            AppLogger.success("Storage migration completed");
+        }
+        return backfilled;
+    }
+
+    /**
+     * Migrate one item and move the cursor past it in the same transaction. When the item fails,
+     * its changes roll back and the cursor is moved past it on its own: the item is left as it
+     * was, and logged for an operator to look at.
+     *
+     * @return true if the item was migrated
+     */
+    private boolean migrateItem(Long id, String label, Supplier<Boolean> migration) {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                boolean moved = migration.get();
+                saveCursor(id);
+                return moved;
+            }));
+        } catch (RuntimeException e) {
+            AppLogger.error(String.format("Storage migration: skipped %s: %s", label, e.getMessage()));
+            transactionTemplate.executeWithoutResult(status -> saveCursor(id));
+            return false;
+        }
+    }
+
+    private void saveCursor(Long id) {
+        state.setLastId(id);
+        stateRepository.save(state);
+    }
+
+    // A short page ends the pass over the current phase
+    private void endBatch(int size) {
+        if (size < batchSize) {
+            state.nextPhase();
+            transactionTemplate.executeWithoutResult(status -> stateRepository.save(state));
+        }
+    }
+}
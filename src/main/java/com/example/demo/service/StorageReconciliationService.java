@@ -0,0 +1,248 @@
+package com.example.demo.service;
+
+import com.example.demo.contract.DocumentStorageContract;
+import com.example.demo.contract.StorageBackend;
+import com.example.demo.contract.StorageReconciliationContract;
+import com.example.demo.entity.StorageIntent;
+import com.example.demo.entity.StoredBlob;
+import com.example.demo.repository.StorageIntentRepository;
+import com.example.demo.repository.StoredBlobRepository;
+import com.example.demo.util.AppLogger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Background reaper for storage objects and blob rows left behind by failed uploads, and for
+ * blobs whose content disappeared. Every run is capped by an I/O budget (number of storage operations)
+ * so the scan trickles along without competing with uploads and downloads.
+ */
+@Service
+public class StorageReconciliationService implements StorageReconciliationContract {
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    private final StorageBackend storageBackend;
+    private final StoredBlobRepository storedBlobRepository;
+    private final StorageIntentRepository storageIntentRepository;
+    private final DocumentStorageContract documentStorage;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${documents.storage.reconcile.enabled:true}")
+    private boolean enabled;
+
+    // Storage operations (exists, list page, delete) allowed per run
+    @Value("${documents.storage.reconcile.io-budget:200}")
+    private int ioBudget;
+
+    @Value("${documents.storage.reconcile.page-size:100}")
+    private int pageSize;
+
+    // Uploads younger than this are still in flight and never touched
+    @Value("${documents.storage.reconcile.grace-minutes:60}")
+    private long graceMinutes;
+
+    private enum Phase { INTENTS, UNREFERENCED, MISSING_CONTENT, ORPHANS }
+
+    private Phase phase = Phase.INTENTS;
+    private long unreferencedCursor = 0;
+    private long blobCursor = 0;
+    private String keyCursor;
+
+    public StorageReconciliationService(StorageBackend storageBackend, StoredBlobRepository storedBlobRepository,
+            StorageIntentRepository storageIntentRepository, DocumentStorageContract documentStorage,
+            PlatformTransactionManager transactionManager) {
+        this.storageBackend = storageBackend;
+        this.storedBlobRepository = storedBlobRepository;
+        this.storageIntentRepository = storageIntentRepository;
+        this.documentStorage = documentStorage;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(initialDelayString = "${documents.storage.reconcile.delay-ms:60000}",
+            fixedDelayString = "${documents.storage.reconcile.delay-ms:60000}")
+    public void runScheduled() {
+        if (enabled) {
+            reconcileNextBatch();
+        }
+    }
+
+    @Override
+    public synchronized int reconcileNextBatch() {
+        return transactionTemplate.execute(status -> reconcile());
+    }
+
+    private int reconcile() {
+        int spent = 0;
+        // Each phase works until the budget runs out or it completes a pass, then hands over to the next
+        for (int step = 0; step < Phase.values().length && spent < ioBudget; step++) {
+            int budget = ioBudget - spent;
+            PhaseResult result = switch (phase) {
+                case INTENTS -> reapExpiredIntents(budget);
+                case UNREFERENCED -> reapUnreferencedBlobs(budget);
+                case MISSING_CONTENT -> checkBlobContent(budget);
+                case ORPHANS -> reapOrphanObjects(budget);
+            };
+            spent += result.spent();
+            if (!result.passCompleted()) {
+                break;
+            }
+            phase = Phase.values()[(phase.ordinal() + 1) % Phase.values().length];
+        }
+        return spent;
+    }
+
+    private PhaseResult reapExpiredIntents(int budget) {
+        LocalDateTime expiry = LocalDateTime.now().minusMinutes(graceMinutes);
+        List<StorageIntent> intents = storageIntentRepository.findByCreatedAtBeforeOrderByIdAsc(
+                expiry, PageRequest.of(0, Math.min(pageSize, budget)));
+
+        int spent = 0;
+        for (StorageIntent intent : intents) {
+            // The blob row committed (or an identical upload did): the content belongs to it, and
+            // the unreferenced pass reaps it if the upload rolled back afterwards
+            if (!storedBlobRepository.existsByCheminFichier(intent.getCheminFichier())) {
+                spent++;
+                if (delete(intent.getCheminFichier())) {
+                    AppLogger.warn(String.format("Storage reconciliation: removed object of failed upload %s",
+                            intent.getCheminFichier()));
+                }
+                // Dropped either way so one undeletable object cannot hold the queue; the orphan
+                // scan retries the object itself
+            }
+            storageIntentRepository.delete(intent);
+        }
+        return new PhaseResult(spent, intents.size() < Math.min(pageSize, budget));
+    }
+
+    /**
+     * Reap blob rows no document references anymore. Uploads insert their row before referencing
+     * it, and releases reap it after their commit, so such rows only outlive the grace period when
+     * the upload rolled back or the reap did not run (crash, failed delete).
+     */
+    private PhaseResult reapUnreferencedBlobs(int budget) {
+        LocalDateTime expiry = LocalDateTime.now().minusMinutes(graceMinutes);
+        List<Long> blobIds = storedBlobRepository.findUnreferencedIds(
+                expiry, unreferencedCursor, PageRequest.of(0, Math.min(pageSize, budget)));
+
+        for (Long blobId : blobIds) {
+            if (documentStorage.reapIfUnreferenced(blobId)) {
+                AppLogger.warn(String.format("Storage reconciliation: removed unreferenced blob %d", blobId));
+            }
+            unreferencedCursor = blobId;
+        }
+
+        boolean passCompleted = blobIds.size() < Math.min(pageSize, budget);
+        if (passCompleted) {
+            unreferencedCursor = 0;
+        }
+        return new PhaseResult(blobIds.size(), passCompleted);
+    }
+
+    private PhaseResult checkBlobContent(int budget) {
+        List<StoredBlob> blobs = storedBlobRepository.findByIdGreaterThanOrderByIdAsc(
+                blobCursor, PageRequest.of(0, Math.min(pageSize, budget)));
+
+        int spent = 0;
+        for (StoredBlob blob : blobs) {
+            try {
+                spent++;
+                if (!storageBackend.exists(blob.getCheminFichier())) {
+                    AppLogger.error(String.format("Storage reconciliation: content missing for blob %s (%s)",
+                            blob.getEmpreinteSha256(), blob.getCheminFichier()));
+                }
+            } catch (IOException e) {
+                AppLogger.error(String.format("Storage reconciliation: cannot check %s: %s",
+                        blob.getCheminFichier(), e.getMessage()));
+            }
+            blobCursor = blob.getId();
+        }
+
+        boolean passCompleted = blobs.size() < Math.min(pageSize, budget);
+        if (passCompleted) {
+            blobCursor = 0;
+        }
+        return new PhaseResult(spent, passCompleted);
+    }
+
+    private PhaseResult reapOrphanObjects(int budget) {
+        int limit = Math.min(pageSize, budget);
+        List<String> keys;
+        try {
+            keys = storageBackend.list(keyCursor, limit);
+        } catch (IOException e) {
+            AppLogger.error("Storage reconciliation: cannot list objects: " + e.getMessage());
+            return new PhaseResult(1, false);
+        }
+        int spent = 1;
+
+        // Intents are read before blobs: an upload commits its blob row before the transaction
+        // that drops its intent, so an object missed by the first query is seen by the second
+        Set<String> inFlight = keys.isEmpty() ? Set.of() : storageIntentRepository.findPendingChemins(keys);
+        // Objects are named after their digest, so a blob with that digest means the object is
+        // in use (possibly waiting to be relocated by the storage migration)
+        Map<String, String> keysByEmpreinte = keys.stream()
+                .filter(key -> SHA256_HEX.matcher(fileName(key)).matches())
+                .collect(Collectors.toMap(this::fileName, Function.identity(), (first, second) -> first));
+        Set<String> referenced = keysByEmpreinte.isEmpty()
+                ? Set.of()
+                : storedBlobRepository.findExistingEmpreintes(keysByEmpreinte.keySet());
+
+        for (String key : keys) {
+            String empreinte = fileName(key);
+            boolean orphan = SHA256_HEX.matcher(empreinte).matches()
+                    && !referenced.contains(empreinte)
+                    && !inFlight.contains(key)
+                    && isStillUnreferenced(key, empreinte);
+            if (orphan && delete(key)) {
+                spent++;
+                AppLogger.warn(String.format("Storage reconciliation: removed unreferenced object %s", key));
+            }
+            keyCursor = key;
+        }
+
+        boolean passCompleted = keys.size() < limit;
+        if (passCompleted) {
+            keyCursor = null;
+        }
+        return new PhaseResult(spent, passCompleted);
+    }
+
+    /**
+     * Check one candidate again right before deleting it, in the same order as the page queries,
+     * so an upload that started since the page was read keeps its object.
+     */
+    private boolean isStillUnreferenced(String key, String empreinte) {
+        return storageIntentRepository.findPendingChemins(List.of(key)).isEmpty()
+                && storedBlobRepository.findExistingEmpreintes(Set.of(empreinte)).isEmpty();
+    }
+
+    private boolean delete(String key) {
+        try {
+            storageBackend.delete(key);
+            return true;
+        } catch (IOException e) {
+            AppLogger.error(String.format("Storage reconciliation: cannot delete %s: %s", key, e.getMessage()));
+            return false;
+        }
+    }
+
+    private String fileName(String key) {
+        return key.substring(key.lastIndexOf('/') + 1);
+    }
+
+    private record PhaseResult(int spent, boolean passCompleted) {
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.service;
+
+import com.example.demo.config.UploadAdmissionProperties;
+import com.example.demo.contract.UploadAdmissionContract;
+import com.example.demo.exception.TooManyRequestsException;
+import com.example.demo.util.TokenBucket;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-société admission control for uploads. Each société gets its own limiter (a concurrency
+ * semaphore and a byte token bucket, each with its own lock), so a tenant over its limits is
+ * turned away without blocking a worker thread or slowing down the others.
+ */
+@Service
+@RequiredArgsConstructor
+public class UploadAdmissionService implements UploadAdmissionContract {
+
+    private static final String METRIC_ADMISSION = "documents.upload.admission";
+    private static final String METRIC_IN_FLIGHT = "documents.upload.in-flight";
+
+    private final UploadAdmissionProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, TenantLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Override
+    public void acquire(String ice, long bytes) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        TenantLimiter limiter = limiters.computeIfAbsent(ice, this::createLimiter);
+
+        if (!limiter.slots.tryAcquire()) {
+            count(ice, "rejected_concurrency");
+            throw new TooManyRequestsException("UPLOAD_CONCURRENCY_LIMIT",
+                    "Trop d'uploads simultanés pour cette société, veuillez réessayer", 1);
+        }
+
+        long waitNanos = limiter.bytes.tryConsume(bytes);
+        if (waitNanos > 0) {
+            limiter.slots.release();
+            count(ice, "rejected_rate");
+            // Round up: retrying before the tokens are back would only be rejected again
+            long retryAfter = TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1;
+            throw new TooManyRequestsException("UPLOAD_RATE_LIMIT",
+                    "Volume d'upload dépassé pour cette société, veuillez réessayer plus tard", retryAfter);
+        }
+        count(ice, "admitted");
+    }
+
+    @Override
+    public void release(String ice) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        TenantLimiter limiter = limiters.get(ice);
+        if (limiter != null) {
+            limiter.slots.release();
+        }
+    }
+
+    private TenantLimiter createLimiter(String ice) {
+        UploadAdmissionProperties.TenantLimits overrides = properties.getTenants().get(ice);
+        int maxConcurrent = overrides != null && overrides.getMaxConcurrent() != null
+                ? overrides.getMaxConcurrent() : properties.getMaxConcurrent();
+        long bytesPerSecond = (overrides != null && overrides.getBytesPerSecond() != null
+                ? overrides.getBytesPerSecond() : properties.getBytesPerSecond()).toBytes();
+        long burst = (overrides != null && overrides.getBurst() != null
+                ? overrides.getBurst() : properties.getBurst()).toBytes();
+
+        TenantLimiter limiter = new TenantLimiter(maxConcurrent, new Semaphore(maxConcurrent),
+                new TokenBucket(burst, bytesPerSecond));
+        Gauge.builder(METRIC_IN_FLIGHT, limiter, l -> l.maxConcurrent - l.slots.availablePermits())
+                .description("Upload requests in progress per société")
+                .tag("societe", ice)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    private void count(String ice, String outcome) {
+        meterRegistry.counter(METRIC_ADMISSION, "societe", ice, "outcome", outcome).increment();
+    }
+
+    private record TenantLimiter(int maxConcurrent, Semaphore slots, TokenBucket bytes) {
+    }
+}
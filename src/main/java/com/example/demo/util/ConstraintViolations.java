@@ -0,0 +1,35 @@
+package com.example.demo.util;
+
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.util.Locale;
+
+/**
+ * Tells which named constraint a failed write violated, whatever the database.
+ */
+public final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    /**
+     * @param failure    Exception thrown by the write (any wrapper of the driver exception)
+     * @param constraint Name given to the constraint in the mapping
+     * @return true if the constraint is the one the write violated
+     */
+    public static boolean violates(Throwable failure, String constraint) {
+        String name = constraint.toLowerCase(Locale.ROOT);
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(name)) {
+                return true;
+            }
+            // Some drivers only name the constraint (or its index) in the message
+            if (cause.getCause() == null && cause.getMessage() != null
+                    && cause.getMessage().toLowerCase(Locale.ROOT).contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Size-capped on-disk cache with least-recently-used eviction. Entries are plain files in
+ * one directory; the access order is kept in memory and rebuilt from modification times
+ * when the cache is reopened.
+ */
+public class DiskLruCache {
+
+    private static final String TEMP_PREFIX = ".tmp-";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Long> sizes = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public DiskLruCache(Path directory, long maxBytes) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted(Comparator.comparingLong(DiskLruCache::lastModified)).toList()) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(TEMP_PREFIX)) {
+                    Files.deleteIfExists(file);
+                } else if (Files.isRegularFile(file)) {
+                    long size = Files.size(file);
+                    sizes.put(name, size);
+                    totalBytes += size;
+                }
+            }
+        }
+        evict();
+    }
+
+    /**
+     * @return The cached file for the key, marked as most recently used
+     */
+    public synchronized Optional<Path> get(String key) {
+        if (sizes.get(key) == null) {
+            return Optional.empty();
+        }
+        Path file = directory.resolve(key);
+        if (!Files.exists(file)) {
+            totalBytes -= sizes.remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(file);
+    }
+
+    /**
+     * @return A temporary file in the cache directory, to be filled then passed to {@link #put}
+     */
+    public Path newTempFile() {
+        return directory.resolve(TEMP_PREFIX + UUID.randomUUID());
+    }
+
+    /**
+     * Move a filled temporary file into the cache under a key, evicting the least recently
+     * used entries if the cache is over its size
+     */
+    public synchronized Path put(String key, Path tempFile) throws IOException {
+        Path file = directory.resolve(key);
+        Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        long size = Files.size(file);
+        Long previous = sizes.put(key, size);
+        totalBytes += size - (previous != null ? previous : 0);
+        evict();
+        return file;
+    }
+
+    public synchronized void remove(String key) throws IOException {
+        Long size = sizes.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        Files.deleteIfExists(directory.resolve(key));
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private synchronized void evict() throws IOException {
+        Iterator<Map.Entry<String, Long>> eldest = sizes.entrySet().iterator();
+        // Keep at least the newest entry, even if it alone exceeds the cap
+        while (totalBytes > maxBytes && sizes.size() > 1 && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            Files.deleteIfExists(directory.resolve(entry.getKey()));
+            totalBytes -= entry.getValue();
+            eldest.remove();
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
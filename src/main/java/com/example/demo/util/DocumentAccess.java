@@ -0,0 +1,24 @@
+package com.example.demo.util;
+
+import com.example.demo.entity.Document;
+import com.example.demo.entity.User;
+
+import java.util.Objects;
+
+/**
+ * Tells whether a user may read a document: accountants see every société, société users
+ * only their own.
+ */
+public final class DocumentAccess {
+
+    private DocumentAccess() {
+    }
+
+    public static boolean canAccess(Document document, User user) {
+        if (user.getRole() == User.Role.COMPTABLE) {
+            return true;
+        }
+        return user.getSociete() != null && document.getSociete() != null
+                && Objects.equals(document.getSociete().getId(), user.getSociete().getId());
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.util;
+
+import com.example.demo.dto.DocumentResponseDTO;
+import com.example.demo.dto.DocumentSearchDTO;
+import com.example.demo.exception.BusinessException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a document listing ordered by (sort key, id): the key of the last
+ * document of a page. Handed to clients as an opaque base64url token that also records the
+ * sort it belongs to, so a cursor cannot be replayed against another order.
+ */
+public record DocumentCursor(DocumentSearchDTO.Tri tri, Comparable<?> key, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static DocumentCursor of(DocumentResponseDTO document, DocumentSearchDTO.Tri tri) {
+        Comparable<?> key = switch (tri) {
+            case DATE_CREATION -> document.getCreatedAt();
+            case DATE_PIECE -> document.getDatePiece();
+            case MONTANT -> document.getMontant();
+        };
+        return new DocumentCursor(tri, key, document.getId());
+    }
+
+    public String encode() {
+        String token = tri + SEPARATOR + key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token Token from a previous page, or null for the first page
+     * @param tri   Sort of the requested page, which the token must have been issued for
+     * @return The decoded position, or null for the first page
+     */
+    public static DocumentCursor decode(String token, DocumentSearchDTO.Tri tri) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR, -1);
+            if (parts.length != 3 || DocumentSearchDTO.Tri.valueOf(parts[0]) != tri) {
+                throw invalid();
+            }
+            Comparable<?> key = switch (tri) {
+                case DATE_CREATION -> LocalDateTime.parse(parts[1]);
+                case DATE_PIECE -> LocalDate.parse(parts[1]);
+                case MONTANT -> new BigDecimal(parts[1]);
+            };
+            return new DocumentCursor(tri, key, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw invalid();
+        }
+    }
+
+    private static BusinessException invalid() {
+        return new BusinessException("INVALID_CURSOR", "Curseur de pagination invalide");
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo.util;
+
+import com.example.demo.dto.DocumentFileDTO;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+public class DocumentDownloadResponse {
+
+    private static final Duration PREVIEW_MAX_AGE = Duration.ofHours(1);
+    private static final Duration IMMUTABLE_MAX_AGE = Duration.ofDays(1);
+
+    private DocumentDownloadResponse() {
+    }
+
+    /**
+     * Build the download response for a stored document.
+     *
+     * A matching If-None-Match is answered with 304 before the resource is read.
+     * Range requests are sliced by Spring MVC directly from the file resource
+     * (206 / 416). When the If-Range validator no longer matches, the whole file
+     * is sent through a plain stream resource, which Spring does not slice.
+     *
+     * @param file           Stored file and its validators
+     * @param requestHeaders Headers of the incoming request
+     * @return Response streaming the file (or the requested ranges)
+     */
+    public static ResponseEntity<Resource> build(DocumentFileDTO file, HttpHeaders requestHeaders) {
+        CacheControl cacheControl = cacheControl(file);
+        if (ifNoneMatchMatches(requestHeaders.getIfNoneMatch(), file.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(file.getEtag())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentDispositionFormData("attachment", file.getNomFichierOriginal());
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setETag(file.getEtag());
+        headers.setLastModified(file.getLastModified());
+        headers.setCacheControl(cacheControl);
+
+        String range = requestHeaders.getFirst(HttpHeaders.RANGE);
+        if (range != null && !ifRangeMatches(requestHeaders.getFirst(HttpHeaders.IF_RANGE), file)) {
+            headers.setContentLength(file.getContentLength());
+            return ResponseEntity.ok()
+                    .headers(headers)
+                    .body(new InputStreamResource(file.getResource()));
+        }
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(file.getResource());
+    }
+
+    /**
+     * Build the response for a preview rendition, shown inline and cacheable by the browser.
+     * Conditional requests (If-None-Match / If-Modified-Since) are answered with 304 by Spring MVC.
+     *
+     * @param file Cached rendition and its validators
+     * @return Response streaming the JPEG rendition
+     */
+    public static ResponseEntity<Resource> preview(DocumentFileDTO file) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_JPEG)
+                .contentLength(file.getContentLength())
+                .cacheControl(CacheControl.maxAge(PREVIEW_MAX_AGE).cachePrivate())
+                .eTag(file.getEtag())
+                .lastModified(file.getLastModified())
+                .body(file.getResource());
+    }
+
+    private static CacheControl cacheControl(DocumentFileDTO file) {
+        if (file.getExpiresAt() != null) {
+            // Signed links name immutable content: shared caches may keep it until the link expires
+            long maxAge = Math.max(0, (file.getExpiresAt() - System.currentTimeMillis()) / 1000);
+            return CacheControl.maxAge(Duration.ofSeconds(maxAge)).cachePublic().immutable();
+        }
+        if (file.isImmutable()) {
+            return CacheControl.maxAge(IMMUTABLE_MAX_AGE).cachePrivate().immutable();
+        }
+        // May still change (e.g. image normalization): cache, but revalidate on every use
+        return CacheControl.noCache().cachePrivate();
+    }
+
+    private static boolean ifNoneMatchMatches(List<String> ifNoneMatch, String etag) {
+        // If-None-Match uses the weak comparison: W/ prefixes are ignored
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        return ifNoneMatch.stream()
+                .map(candidate -> candidate.startsWith("W/") ? candidate.substring(2) : candidate)
+                .anyMatch(candidate -> candidate.equals("*") || candidate.equals(opaque));
+    }
+
+    private static boolean ifRangeMatches(String ifRange, DocumentFileDTO file) {
+        if (ifRange == null) {
+            return true;
+        }
+
+        String value = ifRange.trim();
+        if (value.startsWith("W/")) {
+            // If-Range requires a strong comparison
+            return false;
+        }
+        if (value.startsWith("\"")) {
+            return value.equals(file.getEtag());
+        }
+
+        try {
+            long since = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            return since == file.getLastModified() / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
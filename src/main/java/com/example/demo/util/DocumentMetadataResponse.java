@@ -0,0 +1,35 @@
+package com.example.demo.util;
+
+import com.example.demo.dto.DocumentResponseDTO;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+
+import java.time.ZoneId;
+
+public class DocumentMetadataResponse {
+
+    private DocumentMetadataResponse() {
+    }
+
+    /**
+     * Build the response for the metadata of a document, versioned by its id and last update.
+     * A matching If-None-Match is answered with 304 by Spring MVC, without a body.
+     *
+     * @param document Document metadata
+     * @return Response carrying the metadata and its ETag
+     */
+    public static ResponseEntity<DocumentResponseDTO> build(DocumentResponseDTO document) {
+        return ResponseEntity.ok()
+                .eTag(etag(document))
+                // Status and comments change on validation, so clients always revalidate
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(document);
+    }
+
+    public static String etag(DocumentResponseDTO document) {
+        long version = document.getUpdatedAt() != null
+                ? document.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : 0L;
+        return String.format("\"%d-%x\"", document.getId(), version);
+    }
+}
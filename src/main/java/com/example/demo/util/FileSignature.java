@@ -0,0 +1,49 @@
+package com.example.demo.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Accepted file formats, recognised by their leading "magic" bytes.
+ */
+public enum FileSignature {
+
+    PDF(List.of("pdf"), new byte[] { '%', 'P', 'D', 'F', '-' }),
+    JPEG(List.of("jpg", "jpeg"), new byte[] { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF }),
+    PNG(List.of("png"), new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' });
+
+    /** Number of leading bytes needed to recognise any supported format */
+    public static final int HEADER_LENGTH = 8;
+
+    private final List<String> extensions;
+    private final byte[] magic;
+
+    FileSignature(List<String> extensions, byte[] magic) {
+        this.extensions = extensions;
+        this.magic = magic;
+    }
+
+    public List<String> getExtensions() {
+        return extensions;
+    }
+
+    public static Optional<FileSignature> fromExtension(String extension) {
+        return Arrays.stream(values())
+                .filter(signature -> signature.extensions.contains(extension.toLowerCase()))
+                .findFirst();
+    }
+
+    public static Optional<FileSignature> detect(byte[] header) {
+        return Arrays.stream(values())
+                .filter(signature -> signature.matches(header))
+                .findFirst();
+    }
+
+    private boolean matches(byte[] header) {
+        if (header.length < magic.length) {
+            return false;
+        }
+        return Arrays.equals(header, 0, magic.length, magic, 0, magic.length);
+    }
+}
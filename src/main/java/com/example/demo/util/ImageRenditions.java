@@ -0,0 +1,140 @@
+package com.example.demo.util;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Image helpers for document renditions (previews, normalized scans).
+ */
+public class ImageRenditions {
+
+    private static final float POINTS_PER_INCH = 72f;
+
+    private ImageRenditions() {
+    }
+
+    /**
+     * Render the first page of a PDF so that its longest side is about maxDimension pixels
+     */
+    public static BufferedImage renderPdfFirstPage(InputStream pdf, int maxDimension) throws IOException {
+        try (PDDocument document = Loader.loadPDF(new RandomAccessReadBuffer(pdf))) {
+            if (document.getNumberOfPages() == 0) {
+                throw new IOException("PDF has no pages");
+            }
+            PDRectangle box = document.getPage(0).getCropBox();
+            float longestSide = Math.max(box.getWidth(), box.getHeight());
+            float dpi = maxDimension * POINTS_PER_INCH / longestSide;
+            return new PDFRenderer(document).renderImageWithDPI(0, dpi, ImageType.RGB);
+        }
+    }
+
+    /**
+     * Read a JPEG or PNG image, checking its dimensions from the header before anything is
+     * decoded, so that a small file declaring a huge image cannot exhaust the heap
+     *
+     * @param maxPixels       Largest width x height accepted
+     * @param targetDimension Longest side the caller needs: larger images are decoded subsampled
+     *                        (every n-th pixel) down to about that size; 0 decodes every pixel
+     * @throws ImageTooLargeException If the image has more than maxPixels pixels
+     */
+    public static BufferedImage readImage(InputStream image, long maxPixels, int targetDimension) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(image)) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : Collections.emptyIterator();
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new ImageTooLargeException(width, height, maxPixels);
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = targetDimension > 0 ? Math.max(1, Math.max(width, height) / targetDimension) : 1;
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Thrown when an image declares more pixels than the caller accepts to decode
+     */
+    public static class ImageTooLargeException extends IOException {
+
+        public ImageTooLargeException(int width, int height, long maxPixels) {
+            super(String.format("Image of %dx%d pixels exceeds the limit of %d pixels", width, height, maxPixels));
+        }
+    }
+
+    /**
+     * Scale an image down so that neither side exceeds maxDimension, flattening transparency
+     * onto white. Images already small enough are only flattened.
+     */
+    public static BufferedImage downscale(BufferedImage source, int maxDimension) {
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * Encode an image as JPEG
+     *
+     * @param quality Compression quality between 0 and 1
+     */
+    public static void writeJpeg(BufferedImage image, Path target, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(Files.newOutputStream(target))) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
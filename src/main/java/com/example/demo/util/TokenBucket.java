@@ -0,0 +1,45 @@
+package com.example.demo.util;
+
+/**
+ * Token bucket refilled continuously at a fixed rate, up to its capacity.
+ * Each bucket has its own lock, so buckets of different tenants never contend.
+ */
+public class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(long capacity, long tokensPerSecond) {
+        this.capacity = capacity;
+        this.tokensPerNano = (double) tokensPerSecond / NANOS_PER_SECOND;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Take tokens if enough are available. A request larger than the capacity is charged
+     * the full capacity, so it is admitted once the bucket is full instead of never.
+     *
+     * @param amount Tokens to take
+     * @return 0 if the tokens were taken, otherwise the nanoseconds to wait before they will be
+     */
+    public synchronized long tryConsume(long amount) {
+        refill();
+        long cost = Math.min(amount, capacity);
+        if (tokens >= cost) {
+            tokens -= cost;
+            return 0;
+        }
+        return (long) Math.ceil((cost - tokens) / tokensPerNano);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.demo.util;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ZIP archive of uncompressed (STORED) entries whose layout is computed up front from the
+ * entry sizes and CRCs, so the archive has a known length and can be streamed from any byte
+ * offset: skipping lands directly in the right entry and opens only that entry's content,
+ * at the right position. Nothing is buffered besides the headers.
+ *
+ * ZIP64 is not supported: archives are limited to 65535 entries and 4 GB.
+ */
+public class ZipArchiveResource extends AbstractResource {
+
+    public static final long MAX_SIZE = 0xFFFFFFFFL;
+    public static final int MAX_ENTRIES = 0xFFFF;
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int VERSION = 20;
+    private static final int FLAG_UTF8_NAMES = 0x0800;
+    private static final int METHOD_STORED = 0;
+
+    private final String description;
+    private final List<Segment> segments = new ArrayList<>();
+    private final long length;
+    private final long lastModified;
+
+    /**
+     * A file to place in the archive
+     *
+     * @param name         Entry name
+     * @param size         Exact content length
+     * @param crc32        CRC-32 of the content
+     * @param lastModified Modification date stored in the entry
+     * @param content      Content, whose stream skip must be efficient for resumed downloads
+     */
+    public record Entry(String name, long size, long crc32, LocalDateTime lastModified, Resource content) {
+    }
+
+    public ZipArchiveResource(String description, List<Entry> entries, long lastModified) {
+        if (entries.size() > MAX_ENTRIES) {
+            throw new IllegalArgumentException("Too many entries for a ZIP archive: " + entries.size());
+        }
+        this.description = description;
+        this.lastModified = lastModified;
+
+        ByteArrayOutputStream centralDirectory = new ByteArrayOutputStream();
+        long offset = 0;
+        for (Entry entry : entries) {
+            byte[] name = entry.name().getBytes(StandardCharsets.UTF_8);
+            long dosTime = dosTime(entry.lastModified());
+
+            ByteArrayOutputStream localHeader = new ByteArrayOutputStream();
+            writeInt(localHeader, LOCAL_HEADER_SIGNATURE);
+            writeShort(localHeader, VERSION);
+            writeShort(localHeader, FLAG_UTF8_NAMES);
+            writeShort(localHeader, METHOD_STORED);
+            writeInt(localHeader, dosTime);
+            writeInt(localHeader, entry.crc32());
+            writeInt(localHeader, entry.size());
+            writeInt(localHeader, entry.size());
+            writeShort(localHeader, name.length);
+            writeShort(localHeader, 0);
+            localHeader.writeBytes(name);
+
+            writeInt(centralDirectory, CENTRAL_HEADER_SIGNATURE);
+            writeShort(centralDirectory, VERSION);
+            writeShort(centralDirectory, VERSION);
+            writeShort(centralDirectory, FLAG_UTF8_NAMES);
+            writeShort(centralDirectory, METHOD_STORED);
+            writeInt(centralDirectory, dosTime);
+            writeInt(centralDirectory, entry.crc32());
+            writeInt(centralDirectory, entry.size());
+            writeInt(centralDirectory, entry.size());
+            writeShort(centralDirectory, name.length);
+            writeShort(centralDirectory, 0);
+            writeShort(centralDirectory, 0);
+            writeShort(centralDirectory, 0);
+            writeShort(centralDirectory, 0);
+            writeInt(centralDirectory, 0);
+            writeInt(centralDirectory, offset);
+            centralDirectory.writeBytes(name);
+
+            segments.add(new Segment(new ByteArrayResource(localHeader.toByteArray()), localHeader.size()));
+            segments.add(new Segment(entry.content(), entry.size()));
+            offset += localHeader.size() + entry.size();
+            if (offset > MAX_SIZE) {
+                throw new IllegalArgumentException("ZIP archive larger than 4 GB");
+            }
+        }
+
+        int centralDirectorySize = centralDirectory.size();
+        writeInt(centralDirectory, END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+        writeShort(centralDirectory, 0);
+        writeShort(centralDirectory, 0);
+        writeShort(centralDirectory, entries.size());
+        writeShort(centralDirectory, entries.size());
+        writeInt(centralDirectory, centralDirectorySize);
+        writeInt(centralDirectory, offset);
+        writeShort(centralDirectory, 0);
+        segments.add(new Segment(new ByteArrayResource(centralDirectory.toByteArray()), centralDirectory.size()));
+
+        this.length = offset + centralDirectory.size();
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public long contentLength() {
+        return length;
+    }
+
+    @Override
+    public long lastModified() {
+        return lastModified;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new ArchiveInputStream();
+    }
+
+    private static long dosTime(LocalDateTime time) {
+        if (time == null || time.getYear() < 1980) {
+            time = LocalDateTime.of(1980, 1, 1, 0, 0);
+        }
+        return ((long) (time.getYear() - 1980) << 25)
+                | ((long) time.getMonthValue() << 21)
+                | ((long) time.getDayOfMonth() << 16)
+                | ((long) time.getHour() << 11)
+                | ((long) time.getMinute() << 5)
+                | (time.getSecond() >> 1);
+    }
+
+    private static void writeShort(ByteArrayOutputStream out, int value) {
+        out.write(value & 0xFF);
+        out.write((value >>> 8) & 0xFF);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, long value) {
+        writeShort(out, (int) (value & 0xFFFF));
+        writeShort(out, (int) ((value >>> 16) & 0xFFFF));
+    }
+
+    private record Segment(Resource content, long length) {
+    }
+
+    /**
+     * Walks the segments in order, opening each one only when its first byte is read.
+     * A skip moves the position without opening anything, so a resumed download starts
+     * reading at the right place inside the right entry.
+     */
+    private class ArchiveInputStream extends InputStream {
+
+        private int segment;
+        private long positionInSegment;
+        private InputStream current;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (segment < segments.size()) {
+                long remaining = segments.get(segment).length() - positionInSegment;
+                if (remaining <= 0) {
+                    nextSegment();
+                    continue;
+                }
+                if (current == null) {
+                    current = segments.get(segment).content().getInputStream();
+                    current.skipNBytes(positionInSegment);
+                }
+                int read = current.read(buffer, offset, (int) Math.min(len, remaining));
+                if (read == -1) {
+                    throw new IOException("Content of " + description + " ended before its declared size");
+                }
+                positionInSegment += read;
+                return read;
+            }
+            return -1;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = 0;
+            while (skipped < n && segment < segments.size()) {
+                long remaining = segments.get(segment).length() - positionInSegment;
+                long step = Math.min(remaining, n - skipped);
+                if (current != null && step > 0) {
+                    current.skipNBytes(step);
+                }
+                positionInSegment += step;
+                skipped += step;
+                if (positionInSegment >= segments.get(segment).length()) {
+                    nextSegment();
+                }
+            }
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (current != null) {
+                current.close();
+                current = null;
+            }
+        }
+
+        private void nextSegment() throws IOException {
+            close();
+            segment++;
+            positionInSegment = 0;
+        }
+    }
+}
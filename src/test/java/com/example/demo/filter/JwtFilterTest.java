@@ -0,0 +1,19 @@
+package com.example.demo.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtFilterTest {
+
+    @Test
+    void matches_ShouldOnlyOpenWholePathSegments() {
+        // When & Then
+        assertTrue(JwtFilter.matches("/api/files/**", "/api/files/abc.def"));
+        assertTrue(JwtFilter.matches("/api/files/**", "/api/files"));
+        assertFalse(JwtFilter.matches("/api/files/**", "/api/filesX"));
+        assertFalse(JwtFilter.matches("/api/files/**", "/api/filesX/abc"));
+        assertTrue(JwtFilter.matches("/api/auth/login", "/api/auth/login"));
+        assertFalse(JwtFilter.matches("/api/auth/login", "/api/auth/login-as-admin"));
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.DocumentResponseDTO;
+import com.example.demo.dto.DocumentSearchDTO;
+import com.example.demo.entity.Document;
+import com.example.demo.entity.Societe;
+import com.example.demo.entity.User;
+import com.example.demo.util.ConstraintViolations;
+import com.example.demo.util.DocumentCursor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class DocumentRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    private Societe societe;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        societe = entityManager.persist(Societe.builder()
+                .raisonSociale("Societe Test")
+                .ice("001234567000089")
+                .adresse("1 rue Test")
+                .telephone("0522000000")
+                .emailContact("contact@test.ma")
+                .build());
+        user = entityManager.persist(User.builder()
+                .email("societe@test.ma")
+                .password("secret")
+                .fullName("Societe User")
+                .role(User.Role.SOCIETE)
+                .societe(societe)
+                .build());
+    }
+
+    @Test
+    void findBy_WithKeysetCursor_ShouldWalkEveryDocumentOnceInOrder() {
+        // Given
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(entityManager.persist(document("FAC-2024-00" + i, 2024)).getId());
+        }
+        entityManager.persist(document("FAC-2023-001", 2023));
+        // Same creation time everywhere, so the id alone has to break ties
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE documents SET created_at = TIMESTAMP '2024-03-01 10:00:00'")
+                .executeUpdate();
+        entityManager.clear();
+
+        // When
+        List<Long> walked = new ArrayList<>();
+        DocumentCursor cursor = null;
+        do {
+            List<DocumentResponseDTO> page = documentRepository.findPage(
+                    DocumentSpecifications.hasSociete(societe)
+                            .and(DocumentSpecifications.hasExercice(2024))
+                            .and(DocumentSpecifications.after(cursor, DocumentSearchDTO.Sens.ASC)),
+                    DocumentSpecifications.keysetOrder(DocumentSearchDTO.Tri.DATE_CREATION, DocumentSearchDTO.Sens.ASC),
+                    2);
+            page.forEach(document -> walked.add(document.getId()));
+            cursor = page.size() < 2 ? null
+                    : DocumentCursor.of(page.get(page.size() - 1), DocumentSearchDTO.Tri.DATE_CREATION);
+        } while (cursor != null);
+
+        // Then
+        assertEquals(ids, walked);
+    }
+
+    @Test
+    void findPage_ShouldProjectListingRowsInASingleStatement() {
+        // Given
+        User comptable = entityManager.persist(User.builder()
+                .email("comptable@test.ma")
+                .password("secret")
+                .fullName("Comptable User")
+                .role(User.Role.COMPTABLE)
+                .build());
+        for (int i = 0; i < 5; i++) {
+            Document document = document("FAC-2024-00" + i, 2024);
+            if (i % 2 == 0) {
+                document.setValidatedBy(comptable);
+            }
+            entityManager.persist(document);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        List<DocumentResponseDTO> page = documentRepository.findPage(DocumentSpecifications.hasSociete(societe),
+                DocumentSpecifications.keysetOrder(DocumentSearchDTO.Tri.DATE_CREATION, DocumentSearchDTO.Sens.ASC), 10);
+        List<String> names = page.stream()
+                .map(document -> document.getSocieteRaisonSociale() + "/" + document.getUploadedByName()
+                        + "/" + document.getValidatedByName())
+                .toList();
+
+        // Then
+        assertEquals(5, names.size());
+        assertEquals("Societe Test/Societe User/Comptable User", names.get(0));
+        assertEquals("Societe Test/Societe User/null", names.get(1));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findPage_WithSearchCriteriaSortedByMontant_ShouldWalkMatchesInDescendingOrder() {
+        // Given
+        String[] fournisseurs = {"Maroc Telecom", "TELECOM Services", "Lydec", "Telecom_Plus", "Telecom Sud"};
+        String[] montants = {"250.00", "900.00", "400.00", "250.00", "5000.00"};
+        for (int i = 0; i < fournisseurs.length; i++) {
+            Document document = document("FAC-2024-10" + i, 2024);
+            document.setFournisseur(fournisseurs[i]);
+            document.setMontant(new BigDecimal(montants[i]));
+            entityManager.persist(document);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        DocumentSearchDTO criteria = DocumentSearchDTO.builder()
+                .societeId(societe.getId())
+                .fournisseur("telecom")
+                .montantMax(new BigDecimal("1000"))
+                .dateDebut(LocalDate.of(2024, 1, 1))
+                .build();
+
+        // When
+        List<String> walked = new ArrayList<>();
+        DocumentCursor cursor = null;
+        do {
+            List<DocumentResponseDTO> page = documentRepository.findPage(
+                    DocumentSpecifications.matching(criteria)
+                            .and(DocumentSpecifications.after(cursor, DocumentSearchDTO.Sens.DESC)),
+                    DocumentSpecifications.keysetOrder(DocumentSearchDTO.Tri.MONTANT, DocumentSearchDTO.Sens.DESC),
+                    2);
+            page.forEach(document -> walked.add(document.getFournisseur()));
+            cursor = page.size() < 2 ? null
+                    : DocumentCursor.of(page.get(page.size() - 1), DocumentSearchDTO.Tri.MONTANT);
+        } while (cursor != null);
+
+        // Then
+        assertEquals(List.of("TELECOM Services", "Telecom_Plus", "Maroc Telecom"), walked);
+    }
+
+    @Test
+    void listingQueries_ShouldBeServedByCompositeIndexes() {
+        // Given
+        for (int i = 0; i < 20; i++) {
+            entityManager.persist(document("FAC-2024-0" + (10 + i), 2023 + i % 2));
+        }
+        entityManager.flush();
+        Map<String, String> plans = Map.of(
+                "WHERE societe_id = 1 AND exercice_comptable = 2024 ORDER BY created_at, id",
+                "IDX_DOCUMENTS_SOCIETE_EXERCICE",
+                "WHERE statut = 'EN_ATTENTE' AND exercice_comptable = 2024 ORDER BY created_at, id",
+                "IDX_DOCUMENTS_STATUT_EXERCICE",
+                "WHERE societe_id = 1 AND statut = 'VALIDE' ORDER BY created_at, id",
+                "IDX_DOCUMENTS_SOCIETE_STATUT",
+                "WHERE societe_id = 1 ORDER BY created_at, id",
+                "IDX_DOCUMENTS_SOCIETE_CREATED_AT",
+                "WHERE statut = 'EN_ATTENTE' ORDER BY created_at, id",
+                "IDX_DOCUMENTS_STATUT_CREATED_AT",
+                "WHERE societe_id = 1 AND date_piece >= DATE '2024-03-01' ORDER BY date_piece, id",
+                "IDX_DOCUMENTS_SOCIETE_DATE_PIECE",
+                "WHERE societe_id = 1 AND montant BETWEEN 100 AND 500 ORDER BY montant DESC, id DESC",
+                "IDX_DOCUMENTS_SOCIETE_MONTANT");
+
+        // When & Then
+        plans.forEach((where, index) -> {
+            String plan = (String) entityManager.getEntityManager()
+                    .createNativeQuery("EXPLAIN SELECT id FROM documents " + where)
+                    .getSingleResult();
+            assertTrue(plan.toUpperCase().contains(index), () -> where + " -> " + plan);
+        });
+    }
+
+    @Test
+    void saveAndFlush_WithDuplicateNumeroPiece_ShouldViolateTheNamedConstraint() {
+        // Given
+        documentRepository.saveAndFlush(document("FAC-2024-001", 2024));
+
+        // When
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class,
+                () -> documentRepository.saveAndFlush(document("FAC-2024-001", 2024)));
+
+        // Then
+        assertTrue(ConstraintViolations.violates(exception, Document.NUMERO_PIECE_CONSTRAINT));
+        assertFalse(ConstraintViolations.violates(exception, "uk_stored_blobs_empreinte"));
+    }
+
+    private Document document(String numeroPiece, int exercice) {
+        return Document.builder()
+                .numeroPiece(numeroPiece)
+                .typeDocument(Document.TypeDocument.FACTURE_ACHAT)
+                .categorieComptable("Achats")
+                .datePiece(LocalDate.of(exercice, 3, 1))
+                .montant(new BigDecimal("100.00"))
+                .fournisseur("Fournisseur")
+                .cheminFichier("aa/bb/" + numeroPiece)
+                .nomFichierOriginal(numeroPiece + ".pdf")
+                .societe(societe)
+                .uploadedBy(user)
+                .exerciceComptable(exercice)
+                .build();
+    }
+}
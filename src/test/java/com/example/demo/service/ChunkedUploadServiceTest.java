@@ -0,0 +1,189 @@
+package com.example.demo.service;
+
+import com.example.demo.contract.DocumentServiceContract;
+import com.example.demo.dto.DocumentResponseDTO;
+import com.example.demo.dto.DocumentUploadDTO;
+import com.example.demo.dto.UploadSessionDTO;
+import com.example.demo.dto.UploadSessionRequestDTO;
+import com.example.demo.entity.User;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.exception.ConflictException;
+import com.example.demo.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChunkedUploadServiceTest {
+
+    @Mock
+    private DocumentServiceContract documentService;
+
+    @InjectMocks
+    private ChunkedUploadService chunkedUploadService;
+
+    @TempDir
+    Path tempDir;
+
+    private User user;
+    private UploadSessionRequestDTO request;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(chunkedUploadService, "chunkedDir", tempDir.toString());
+
+        user = User.builder().id(1L).email("societe@test.ma").fullName("Societe User").role(User.Role.SOCIETE).build();
+        request = UploadSessionRequestDTO.builder()
+                .document(DocumentUploadDTO.builder().numeroPiece("FAC-2024-001").build())
+                .nomFichierOriginal("facture.pdf")
+                .contentType("application/pdf")
+                .tailleFichier(10L)
+                .build();
+    }
+
+    @Test
+    void appendChunk_InSequence_ShouldCompleteIntoRegularUpload() throws Exception {
+        // Given
+        UploadSessionDTO session = chunkedUploadService.createSession(request, user);
+        when(documentService.uploadDocument(eq(request.getDocument()), any(), eq(user))).thenAnswer(invocation -> {
+            MultipartFile file = invocation.getArgument(1);
+            assertEquals("facture.pdf", file.getOriginalFilename());
+            assertArrayEquals("0123456789".getBytes(), file.getBytes());
+            return DocumentResponseDTO.builder().id(10L).build();
+        });
+
+        // When
+        chunkedUploadService.appendChunk(session.getSessionId(), 0, new ByteArrayInputStream("01234".getBytes()), user);
+        UploadSessionDTO afterSecond = chunkedUploadService.appendChunk(
+                session.getSessionId(), 5, new ByteArrayInputStream("56789".getBytes()), user);
+        DocumentResponseDTO document = chunkedUploadService.complete(session.getSessionId(), user);
+
+        // Then
+        assertTrue(afterSecond.isComplete());
+        assertEquals(10L, document.getId());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void appendChunk_WithWrongOffset_ShouldThrowConflict() {
+        // Given
+        UploadSessionDTO session = chunkedUploadService.createSession(request, user);
+        chunkedUploadService.appendChunk(session.getSessionId(), 0, new ByteArrayInputStream("01234".getBytes()), user);
+
+        // When & Then
+        ConflictException exception = assertThrows(ConflictException.class,
+                () -> chunkedUploadService.appendChunk(
+                        session.getSessionId(), 0, new ByteArrayInputStream("01234".getBytes()), user));
+
+        assertEquals("OFFSET_MISMATCH", exception.getCode());
+        assertEquals(5, chunkedUploadService.getSession(session.getSessionId(), user).getOffset());
+    }
+
+    @Test
+    void appendChunk_PastAnnouncedSize_ShouldRejectTheWholeChunk() throws Exception {
+        // Given
+        UploadSessionDTO session = chunkedUploadService.createSession(request, user);
+        chunkedUploadService.appendChunk(session.getSessionId(), 0, new ByteArrayInputStream("01234".getBytes()), user);
+
+        // When
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> chunkedUploadService.appendChunk(
+                        session.getSessionId(), 5, new ByteArrayInputStream("56789X".getBytes()), user));
+
+        // Then
+        assertEquals("CHUNK_OUT_OF_BOUNDS", exception.getCode());
+        assertEquals(5, chunkedUploadService.getSession(session.getSessionId(), user).getOffset());
+        Path spool;
+        try (var files = Files.list(tempDir)) {
+            spool = files.findFirst().orElseThrow();
+        }
+        assertEquals(10L, Files.size(spool));
+        assertArrayEquals(new byte[5], Arrays.copyOfRange(Files.readAllBytes(spool), 5, 10));
+    }
+
+    @Test
+    void complete_WithMissingBytes_ShouldThrowConflict() {
+        // Given
+        UploadSessionDTO session = chunkedUploadService.createSession(request, user);
+
+        // When & Then
+        ConflictException exception = assertThrows(ConflictException.class,
+                () -> chunkedUploadService.complete(session.getSessionId(), user));
+
+        assertEquals("UPLOAD_INCOMPLETE", exception.getCode());
+        verify(documentService, never()).uploadDocument(any(), any(), any());
+    }
+
+    @Test
+    void complete_WhenUploadFails_ShouldKeepSessionAndFileForRetry() throws Exception {
+        // Given
+        UploadSessionDTO session = chunkedUploadService.createSession(request, user);
+        chunkedUploadService.appendChunk(session.getSessionId(), 0, new ByteArrayInputStream("0123456789".getBytes()), user);
+        when(documentService.uploadDocument(eq(request.getDocument()), any(), eq(user)))
+                .thenThrow(new BusinessException("FILE_SAVE_ERROR", "Erreur lors de l'enregistrement du fichier"))
+                .thenReturn(DocumentResponseDTO.builder().id(10L).build());
+
+        // When
+        assertThrows(BusinessException.class, () -> chunkedUploadService.complete(session.getSessionId(), user));
+        DocumentResponseDTO document = chunkedUploadService.complete(session.getSessionId(), user);
+
+        // Then
+        assertEquals(10L, document.getId());
+        verify(documentService, times(2)).uploadDocument(any(), any(), any());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void purgeExpiredSessions_ShouldDropInactiveSessionsWithTheirFile() throws Exception {
+        // Given
+        UploadSessionDTO expired = chunkedUploadService.createSession(request, user);
+        UploadSessionDTO active = chunkedUploadService.createSession(request, user);
+        Map<String, ?> sessions = (Map<String, ?>) ReflectionTestUtils.getField(chunkedUploadService, "sessions");
+        ReflectionTestUtils.setField(sessions.get(expired.getSessionId()), "lastActivity",
+                LocalDateTime.now().minusDays(2));
+
+        // When
+        chunkedUploadService.purgeExpiredSessions();
+
+        // Then
+        assertThrows(ResourceNotFoundException.class,
+                () -> chunkedUploadService.getSession(expired.getSessionId(), user));
+        assertEquals(0, chunkedUploadService.getSession(active.getSessionId(), user).getOffset());
+        assertFalse(Files.exists(tempDir.resolve(expired.getSessionId())));
+    }
+
+    @Test
+    void createSession_WithFileTooLarge_ShouldThrowException() {
+        // Given
+        request.setTailleFichier(DocumentService.MAX_FILE_SIZE + 1);
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> chunkedUploadService.createSession(request, user));
+
+        assertEquals("FILE_TOO_LARGE", exception.getCode());
+    }
+}
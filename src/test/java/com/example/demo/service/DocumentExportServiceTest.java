@@ -0,0 +1,184 @@
+package com.example.demo.service;
+
+import com.example.demo.contract.DocumentStorageContract;
+import com.example.demo.dto.DocumentFileDTO;
+import com.example.demo.entity.Document;
+import com.example.demo.entity.Societe;
+import com.example.demo.entity.StoredBlob;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.repository.DocumentRepository;
+import com.example.demo.repository.SocieteRepository;
+import com.example.demo.repository.StoredBlobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentExportServiceTest {
+
+    private static final String EMPREINTE = "6ae8a75555209fd6c44157c0aed8016e763ff435a19cf186f76863140143ff72";
+    private static final byte[] CONTENT = "test content".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private SocieteRepository societeRepository;
+
+    @Mock
+    private StoredBlobRepository storedBlobRepository;
+
+    @Mock
+    private DocumentStorageContract documentStorage;
+
+    @InjectMocks
+    private DocumentExportService documentExportService;
+
+    private Societe societe;
+    private StoredBlob blob;
+
+    @BeforeEach
+    void setUp() {
+        societe = Societe.builder()
+                .id(1L)
+                .raisonSociale("Test SARL")
+                .ice("001234567890001")
+                .build();
+        CRC32 crc = new CRC32();
+        crc.update(CONTENT);
+        blob = StoredBlob.builder()
+                .id(7L)
+                .empreinteSha256(EMPREINTE)
+                .cheminFichier("6a/e8/" + EMPREINTE)
+                .tailleFichier((long) CONTENT.length)
+                .crc32(crc.getValue())
+                .build();
+        when(societeRepository.findById(1L)).thenReturn(Optional.of(societe));
+    }
+
+    @Test
+    void exportExercice_WithStoredContent_ShouldArchiveFilesAndManifest() throws Exception {
+        // Given
+        Document document = document(1L, "FAC-2024-001", EMPREINTE);
+        when(documentRepository.findBySocieteAndExerciceComptable(societe, 2024)).thenReturn(List.of(document));
+        when(storedBlobRepository.findByEmpreinteSha256In(any())).thenReturn(List.of(blob));
+        when(documentStorage.open(blob)).thenReturn(new ByteArrayResource(CONTENT));
+
+        // When
+        DocumentFileDTO export = documentExportService.exportExercice(1L, 2024);
+
+        // Then
+        Map<String, String> entries = unzip(export);
+        assertEquals(List.of("manifest.csv", "FAC-2024-001_facture.pdf"), List.copyOf(entries.keySet()));
+        assertEquals("test content", entries.get("FAC-2024-001_facture.pdf"));
+        assertTrue(entries.get("manifest.csv").contains("FAC-2024-001_facture.pdf,FAC-2024-001"));
+        verify(documentStorage, never()).recordCrc32(any());
+    }
+
+    @Test
+    void exportExercice_WithBlobWithoutCrc_ShouldRecordItAndExport() throws Exception {
+        // Given
+        Long crc = blob.getCrc32();
+        blob.setCrc32(null);
+        Document document = document(1L, "FAC-2024-001", EMPREINTE);
+        when(documentRepository.findBySocieteAndExerciceComptable(societe, 2024)).thenReturn(List.of(document));
+        when(storedBlobRepository.findByEmpreinteSha256In(any())).thenReturn(List.of(blob));
+        when(documentStorage.recordCrc32(blob)).thenAnswer(invocation -> {
+            blob.setCrc32(crc);
+            return crc;
+        });
+        when(documentStorage.open(blob)).thenReturn(new ByteArrayResource(CONTENT));
+
+        // When
+        DocumentFileDTO export = documentExportService.exportExercice(1L, 2024);
+
+        // Then
+        assertEquals("test content", unzip(export).get("FAC-2024-001_facture.pdf"));
+        verify(documentStorage).recordCrc32(blob);
+    }
+
+    @Test
+    void exportExercice_WithMissingContent_ShouldSkipDocumentAndListIt() throws Exception {
+        // Given
+        Document stored = document(1L, "FAC-2024-001", EMPREINTE);
+        Document withoutBlob = document(2L, "FAC-2024-002", null);
+        Document unreadable = document(3L, "FAC-2024-003", "0b2ea6f3bde1d3fa0e5a0b6cfa1a4ad74a3e0a4f0e1f0c0f7d6b8f5ee2b3a1c9");
+        StoredBlob unreadableBlob = StoredBlob.builder()
+                .id(8L)
+                .empreinteSha256(unreadable.getEmpreinteSha256())
+                .cheminFichier("0b/2e/" + unreadable.getEmpreinteSha256())
+                .tailleFichier(12L)
+                .build();
+        when(documentRepository.findBySocieteAndExerciceComptable(societe, 2024))
+                .thenReturn(List.of(unreadable, withoutBlob, stored));
+        when(storedBlobRepository.findByEmpreinteSha256In(any())).thenReturn(List.of(blob, unreadableBlob));
+        when(documentStorage.recordCrc32(unreadableBlob))
+                .thenThrow(new BusinessException("FILE_READ_ERROR", "Erreur lors de la lecture du fichier"));
+        when(documentStorage.open(blob)).thenReturn(new ByteArrayResource(CONTENT));
+
+        // When
+        DocumentFileDTO export = documentExportService.exportExercice(1L, 2024);
+
+        // Then
+        Map<String, String> entries = unzip(export);
+        assertEquals(List.of("manifest.csv", "contenus_manquants.csv", "FAC-2024-001_facture.pdf"),
+                List.copyOf(entries.keySet()));
+        String missing = entries.get("contenus_manquants.csv");
+        assertTrue(missing.contains("FAC-2024-002,facture.pdf,"));
+        assertTrue(missing.contains("FAC-2024-003,facture.pdf," + unreadable.getEmpreinteSha256()));
+        assertFalse(missing.contains("FAC-2024-001"));
+        // Every document keeps its manifest line, the skipped ones without a file name
+        assertTrue(entries.get("manifest.csv").contains("\r\n,FAC-2024-002,"));
+    }
+
+    private Document document(Long id, String numeroPiece, String empreinte) {
+        return Document.builder()
+                .id(id)
+                .numeroPiece(numeroPiece)
+                .typeDocument(Document.TypeDocument.FACTURE_ACHAT)
+                .categorieComptable("Achats")
+                .datePiece(LocalDate.of(2024, 3, 1))
+                .montant(new BigDecimal("1000.00"))
+                .fournisseur("Fournisseur Test")
+                .nomFichierOriginal("facture.pdf")
+                .empreinteSha256(empreinte)
+                .statut(Document.StatutDocument.VALIDE)
+                .societe(societe)
+                .exerciceComptable(2024)
+                .createdAt(LocalDateTime.of(2024, 3, 1, 10, 0))
+                .updatedAt(LocalDateTime.of(2024, 3, 2, 10, 0))
+                .build();
+    }
+
+    private Map<String, String> unzip(DocumentFileDTO export) throws Exception {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (InputStream in = export.getResource().getInputStream(); ZipInputStream zip = new ZipInputStream(in)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.service;
+
+import com.example.demo.contract.DocumentServiceContract;
+import com.example.demo.dto.DocumentResponseDTO;
+import com.example.demo.dto.DocumentUploadDTO;
+import com.example.demo.dto.IngestStatusDTO;
+import com.example.demo.entity.User;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentIngestServiceTest {
+
+    @Mock
+    private DocumentServiceContract documentService;
+
+    private DocumentIngestService documentIngestService;
+
+    @TempDir
+    Path tempDir;
+
+    private User user;
+    private DocumentUploadDTO uploadDTO;
+    private MockMultipartFile file;
+
+    @BeforeEach
+    void setUp() {
+        documentIngestService = new DocumentIngestService(documentService, new SyncTaskExecutor());
+        ReflectionTestUtils.setField(documentIngestService, "stagingDir", tempDir.toString());
+
+        user = User.builder().id(1L).email("societe@test.ma").fullName("Societe User").role(User.Role.SOCIETE).build();
+        uploadDTO = DocumentUploadDTO.builder().numeroPiece("FAC-2024-001").build();
+        file = new MockMultipartFile("file", "facture.pdf", "application/pdf", "test content".getBytes());
+    }
+
+    @Test
+    void submit_WithValidUpload_ShouldCompleteAndCleanStagingArea() throws Exception {
+        // Given
+        DocumentResponseDTO document = DocumentResponseDTO.builder().id(10L).numeroPiece("FAC-2024-001").build();
+        when(documentService.uploadDocument(eq(uploadDTO), any(), eq(user))).thenReturn(document);
+
+        // When
+        IngestStatusDTO submitted = documentIngestService.submit(uploadDTO, file, user);
+        IngestStatusDTO status = documentIngestService.getStatus(submitted.getTrackingId(), user);
+
+        // Then
+        assertEquals(IngestStatusDTO.StatutIngestion.TERMINE, status.getStatut());
+        assertEquals(10L, status.getDocument().getId());
+        assertNotNull(status.getCompletedAt());
+        try (var staged = Files.list(tempDir)) {
+            assertEquals(0, staged.count());
+        }
+    }
+
+    @Test
+    void submit_WithBusinessFailure_ShouldReportFailure() {
+        // Given
+        when(documentService.uploadDocument(eq(uploadDTO), any(), eq(user)))
+                .thenThrow(new BusinessException("DUPLICATE_DOCUMENT", "Un document existe déjà"));
+
+        // When
+        IngestStatusDTO submitted = documentIngestService.submit(uploadDTO, file, user);
+        IngestStatusDTO status = documentIngestService.getStatus(submitted.getTrackingId(), user);
+
+        // Then
+        assertEquals(IngestStatusDTO.StatutIngestion.ECHEC, status.getStatut());
+        assertEquals("DUPLICATE_DOCUMENT", status.getCode());
+    }
+
+    @Test
+    void getStatus_FromAnotherUser_ShouldThrowException() {
+        // Given
+        when(documentService.uploadDocument(eq(uploadDTO), any(), eq(user)))
+                .thenReturn(DocumentResponseDTO.builder().id(10L).build());
+        IngestStatusDTO submitted = documentIngestService.submit(uploadDTO, file, user);
+        User otherUser = User.builder().id(2L).build();
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class,
+                () -> documentIngestService.getStatus(submitted.getTrackingId(), otherUser));
+    }
+}
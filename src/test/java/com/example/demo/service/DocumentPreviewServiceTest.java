@@ -0,0 +1,181 @@
+package com.example.demo.service;
+
+import com.example.demo.contract.DocumentServiceContract;
+import com.example.demo.dto.DocumentFileDTO;
+import com.example.demo.entity.Document;
+import com.example.demo.entity.Societe;
+import com.example.demo.entity.User;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.repository.DocumentRepository;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentPreviewServiceTest {
+
+    @Mock
+    private DocumentServiceContract documentService;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    private DocumentPreviewService documentPreviewService;
+
+    private User user;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        documentPreviewService = new DocumentPreviewService(documentService, documentRepository,
+                new SyncTaskExecutor());
+        ReflectionTestUtils.setField(documentPreviewService, "cacheDir", tempDir.toString());
+        ReflectionTestUtils.setField(documentPreviewService, "cacheMaxSize", DataSize.ofMegabytes(1));
+        ReflectionTestUtils.setField(documentPreviewService, "maxDimension", 100);
+        ReflectionTestUtils.setField(documentPreviewService, "maxPixels", 1_000_000L);
+        ReflectionTestUtils.setField(documentPreviewService, "jpegQuality", 0.8f);
+        ReflectionTestUtils.setField(documentPreviewService, "renderTimeoutMs", 1000L);
+
+        Societe societe = Societe.builder().id(1L).build();
+        user = User.builder().id(1L).role(User.Role.SOCIETE).societe(societe).build();
+        lenient().when(documentRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.of(Document.builder()
+                        .id(invocation.getArgument(0))
+                        .societe(societe)
+                        .build()));
+    }
+
+    @Test
+    void getPreview_WithLargeImage_ShouldRenderDownscaledJpegOnce() throws Exception {
+        // Given
+        when(documentService.downloadDocument(1L)).thenReturn(file(png(800, 400)));
+
+        // When
+        DocumentFileDTO first = documentPreviewService.getPreview(1L, user);
+        DocumentFileDTO second = documentPreviewService.getPreview(1L, user);
+
+        // Then
+        BufferedImage preview = read(first);
+        assertEquals(100, preview.getWidth());
+        assertEquals(50, preview.getHeight());
+        assertEquals(first.getEtag(), second.getEtag());
+        verify(documentService, times(1)).downloadDocument(1L);
+    }
+
+    @Test
+    void getPreview_WithPdf_ShouldRenderFirstPage() throws Exception {
+        // Given
+        when(documentService.downloadDocument(2L)).thenReturn(file(pdf()));
+
+        // When
+        DocumentFileDTO preview = documentPreviewService.getPreview(2L, user);
+
+        // Then
+        BufferedImage image = read(preview);
+        assertEquals(100, image.getHeight());
+        assertTrue(image.getWidth() < 100);
+    }
+
+    @Test
+    void getPreview_WithUnsupportedContent_ShouldThrowException() {
+        // Given
+        when(documentService.downloadDocument(3L)).thenReturn(file("not an image".getBytes()));
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> documentPreviewService.getPreview(3L, user));
+
+        assertEquals("PREVIEW_UNSUPPORTED", exception.getCode());
+    }
+
+    @Test
+    void getPreview_WithImageOverPixelLimit_ShouldRefuseItWithoutDecoding() throws Exception {
+        // Given
+        when(documentService.downloadDocument(4L)).thenReturn(file(png(2000, 1000)));
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> documentPreviewService.getPreview(4L, user));
+
+        assertEquals("PREVIEW_UNSUPPORTED", exception.getCode());
+    }
+
+    @Test
+    void getPreview_WithDocumentOfAnotherSociete_ShouldThrowNotFoundWithoutRendering() {
+        // Given
+        when(documentRepository.findById(5L)).thenReturn(Optional.of(Document.builder()
+                .id(5L)
+                .societe(Societe.builder().id(2L).build())
+                .build()));
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> documentPreviewService.getPreview(5L, user));
+        verify(documentService, never()).downloadDocument(any());
+    }
+
+    @Test
+    void evict_ShouldRenderAgainOnNextAccess() throws Exception {
+        // Given
+        when(documentService.downloadDocument(1L)).thenReturn(file(png(200, 200)));
+        documentPreviewService.getPreview(1L, user);
+
+        // When
+        documentPreviewService.evict(1L);
+        documentPreviewService.getPreview(1L, user);
+
+        // Then
+        verify(documentService, times(2)).downloadDocument(1L);
+    }
+
+    private DocumentFileDTO file(byte[] content) {
+        return DocumentFileDTO.builder().resource(new ByteArrayResource(content)).build();
+    }
+
+    private byte[] png(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", out);
+        return out.toByteArray();
+    }
+
+    private byte[] pdf() throws Exception {
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage(PDRectangle.A4));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    private BufferedImage read(DocumentFileDTO preview) throws Exception {
+        assertEquals(preview.getContentLength(), Files.size(preview.getResource().getFile().toPath()));
+        try (InputStream in = preview.getResource().getInputStream()) {
+            return ImageIO.read(in);
+        }
+    }
+}
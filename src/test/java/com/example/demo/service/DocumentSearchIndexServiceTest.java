@@ -0,0 +1,190 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DocumentPageDTO;
+import com.example.demo.dto.DocumentResponseDTO;
+import com.example.demo.entity.Document;
+import com.example.demo.entity.Societe;
+import com.example.demo.event.DocumentStoredEvent;
+import com.example.demo.event.DocumentValidatedEvent;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.repository.DocumentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentSearchIndexServiceTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @InjectMocks
+    private DocumentSearchIndexService documentSearchIndex;
+
+    @TempDir
+    Path tempDir;
+
+    private Document telecom;
+    private Document lydec;
+    private Document otherSocieteTelecom;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(documentSearchIndex, "enabled", true);
+        ReflectionTestUtils.setField(documentSearchIndex, "indexDir", tempDir.resolve("index").toString());
+        ReflectionTestUtils.setField(documentSearchIndex, "maxResults", 50);
+        ReflectionTestUtils.setField(documentSearchIndex, "maxTerms", 10);
+        documentSearchIndex.init();
+
+        Societe societe = Societe.builder().id(1L).build();
+        Societe otherSociete = Societe.builder().id(2L).build();
+        telecom = document(1L, societe, "Maroc Télécom", "Télécommunications");
+        lydec = document(2L, societe, "Lydec", "Eau et électricité");
+        otherSocieteTelecom = document(3L, otherSociete, "Maroc Telecom", "Télécommunications");
+
+        lenient().when(documentRepository.findPage(any(), any(), anyInt())).thenReturn(List.of(
+                listed(telecom), listed(lydec), listed(otherSocieteTelecom)));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        documentSearchIndex.close();
+    }
+
+    @Test
+    void search_WithPrefixOrTypo_ShouldOnlyReturnDocumentsOfTheSociete() {
+        // Given
+        indexOnStore(telecom, lydec, otherSocieteTelecom);
+
+        // When
+        DocumentPageDTO prefix = documentSearchIndex.search("tele", 1L, null);
+        DocumentPageDTO typo = documentSearchIndex.search("Telecon", 1L, null);
+        DocumentPageDTO everySociete = documentSearchIndex.search("telecom", null, null);
+
+        // Then
+        assertEquals(List.of(1L), ids(prefix));
+        assertEquals(List.of(1L), ids(typo));
+        assertEquals(2, everySociete.getSize());
+    }
+
+    @Test
+    void onDocumentValidated_ShouldIndexTheComptableComment() {
+        // Given
+        indexOnStore(lydec);
+        lydec.setCommentaireComptable("Facture déjà saisie en double");
+        when(documentRepository.findById(2L)).thenReturn(Optional.of(lydec));
+
+        // When
+        documentSearchIndex.onDocumentValidated(new DocumentValidatedEvent(2L));
+        DocumentPageDTO result = documentSearchIndex.search("deja double", 1L, null);
+
+        // Then
+        assertEquals(List.of(2L), ids(result));
+    }
+
+    @Test
+    void rebuild_ShouldIndexEveryDocument() {
+        // Given
+        when(documentRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any()))
+                .thenReturn(List.of(telecom, lydec, otherSocieteTelecom));
+
+        // When
+        long indexed = documentSearchIndex.rebuild();
+        DocumentPageDTO result = documentSearchIndex.search("electricite", 1L, null);
+
+        // Then
+        assertEquals(3, indexed);
+        assertEquals(List.of(2L), ids(result));
+    }
+
+    @Test
+    void rebuild_ShouldKeepServingTheLiveIndexUntilTheSwap() throws Exception {
+        // Given
+        indexOnStore(telecom);
+        when(documentRepository.findById(2L)).thenReturn(Optional.of(lydec));
+        List<List<Long>> duringRebuild = new ArrayList<>();
+        when(documentRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenAnswer(invocation -> {
+            duringRebuild.add(ids(documentSearchIndex.search("telecom", 1L, null)));
+            // Stored while the scan runs, after it read the table
+            documentSearchIndex.onDocumentStored(new DocumentStoredEvent(2L, lydec.getTypeDocument()));
+            return List.of(telecom);
+        });
+
+        // When
+        long indexed = documentSearchIndex.rebuild();
+
+        // Then
+        assertEquals(1, indexed);
+        assertEquals(List.of(List.of(1L)), duringRebuild);
+        assertEquals(List.of(2L), ids(documentSearchIndex.search("lydec", 1L, null)));
+        assertFalse(Files.exists(Path.of(tempDir.resolve("index") + ".rebuild")));
+    }
+
+    @Test
+    void search_WithoutWords_ShouldThrowException() {
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> documentSearchIndex.search("  - ", 1L, null));
+
+        assertEquals("INVALID_QUERY", exception.getCode());
+        verify(documentRepository, never()).findPage(any(), any(), anyInt());
+    }
+
+    @Test
+    void search_WithTooManyWords_ShouldThrowException() {
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> documentSearchIndex.search("facture ".repeat(11), 1L, null));
+
+        assertEquals("QUERY_TOO_LONG", exception.getCode());
+        verify(documentRepository, never()).findPage(any(), any(), anyInt());
+    }
+
+    private void indexOnStore(Document... documents) {
+        for (Document document : documents) {
+            when(documentRepository.findById(document.getId())).thenReturn(Optional.of(document));
+            documentSearchIndex.onDocumentStored(new DocumentStoredEvent(document.getId(), document.getTypeDocument()));
+        }
+    }
+
+    private List<Long> ids(DocumentPageDTO page) {
+        return page.getItems().stream().map(DocumentResponseDTO::getId).toList();
+    }
+
+    private Document document(Long id, Societe societe, String fournisseur, String categorie) {
+        return Document.builder()
+                .id(id)
+                .numeroPiece("FAC-2024-00" + id)
+                .typeDocument(Document.TypeDocument.FACTURE_ACHAT)
+                .categorieComptable(categorie)
+                .fournisseur(fournisseur)
+                .nomFichierOriginal("facture-" + id + ".pdf")
+                .societe(societe)
+                .build();
+    }
+
+    private DocumentResponseDTO listed(Document document) {
+        return DocumentResponseDTO.builder()
+                .id(document.getId())
+                .fournisseur(document.getFournisseur())
+                .build();
+    }
+}
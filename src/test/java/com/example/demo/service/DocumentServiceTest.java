@@ -1,38 +1,63 @@
 package com.example.demo.service;
 
+import com.example.demo.contract.DocumentStorageContract;
+import com.example.demo.contract.NumeroPieceIndexContract;
+import com.example.demo.contract.StorageBackend;
+import com.example.demo.dto.DocumentBatchResultDTO;
+import com.example.demo.dto.DocumentFileDTO;
+import com.example.demo.dto.DocumentPageDTO;
 import com.example.demo.dto.DocumentResponseDTO;
+import com.example.demo.dto.DocumentSearchDTO;
 import com.example.demo.dto.DocumentUploadDTO;
 import com.example.demo.dto.DocumentValidationDTO;
 import com.example.demo.entity.Document;
 import com.example.demo.entity.Societe;
+import com.example.demo.entity.StoredBlob;
 import com.example.demo.entity.User;
+import com.example.demo.event.DocumentStoredEvent;
 import com.example.demo.exception.BusinessException;
 import com.example.demo.exception.ResourceNotFoundException;
 import com.example.demo.repository.DocumentRepository;
 import com.example.demo.repository.SocieteRepository;
+import com.example.demo.util.DocumentCursor;
+import com.example.demo.util.StorageResource;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,6 +69,21 @@ class DocumentServiceTest {
     @Mock
     private SocieteRepository societeRepository;
 
+    @Mock
+    private DocumentStorageContract documentStorage;
+
+    @Mock
+    private NumeroPieceIndexContract numeroPieceIndex;
+
+    @Spy
+    private NumeroPieceReservationService numeroPieceReservations = new NumeroPieceReservationService();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private DocumentService documentService;
 
@@ -68,6 +108,9 @@ class DocumentServiceTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(documentService, "defaultPageSize", 50);
+        ReflectionTestUtils.setField(documentService, "maxPageSize", 200);
+
         // Setup Societe
         societe = Societe.builder()
                 .id(1L)
@@ -131,13 +174,19 @@ class DocumentServiceTest {
                 "file",
                 "facture.pdf",
                 "application/pdf",
-                "test content".getBytes());
+                "%PDF-1.4 test content".getBytes());
     }
 
     @Test
     void uploadDocument_WithValidData_ShouldSucceed() {
         // Given
-        when(documentRepository.findByNumeroPiece(uploadDTO.getNumeroPiece())).thenReturn(Optional.empty());
+        StoredBlob blob = StoredBlob.builder()
+                .empreinteSha256("ab".repeat(32))
+                .cheminFichier("uploads/documents/blobs/ab/ab/" + "ab".repeat(32))
+                .tailleFichier(12L)
+                .nombreReferences(1)
+                .build();
+        when(documentStorage.store(validFile)).thenReturn(blob);
         when(documentRepository.save(any(Document.class))).thenReturn(document);
 
         // When
@@ -147,13 +196,17 @@ class DocumentServiceTest {
         assertNotNull(result);
         assertEquals("FAC-2024-001", result.getNumeroPiece());
         assertEquals("Test SARL", result.getSocieteRaisonSociale());
-        verify(documentRepository).save(any(Document.class));
+        verify(documentRepository).save(argThat(doc -> blob.getCheminFichier().equals(doc.getCheminFichier()) &&
+                blob.getEmpreinteSha256().equals(doc.getEmpreinteSha256())));
+        verify(documentRepository, never()).existsByNumeroPiece(any());
+        verify(numeroPieceIndex).add("FAC-2024-001");
     }
 
     @Test
     void uploadDocument_WithDuplicateNumeroPiece_ShouldThrowException() {
         // Given
-        when(documentRepository.findByNumeroPiece(uploadDTO.getNumeroPiece())).thenReturn(Optional.of(document));
+        when(numeroPieceIndex.mightContain(uploadDTO.getNumeroPiece())).thenReturn(true);
+        when(documentRepository.existsByNumeroPiece(uploadDTO.getNumeroPiece())).thenReturn(true);
 
         // When & Then
         BusinessException exception = assertThrows(BusinessException.class,
@@ -162,6 +215,35 @@ class DocumentServiceTest {
         assertEquals("DUPLICATE_DOCUMENT", exception.getCode());
         assertTrue(exception.getMessage().contains("FAC-2024-001"));
         verify(documentRepository, never()).save(any());
+        verify(documentStorage, never()).store(any());
+    }
+
+    @Test
+    void uploadDocument_WithSameNumeroPieceInFlight_ShouldFailFastWithoutIO() {
+        // Given
+        numeroPieceReservations.reserve(uploadDTO.getNumeroPiece());
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> documentService.uploadDocument(uploadDTO, validFile, societeUser));
+
+        assertEquals("DUPLICATE_DOCUMENT", exception.getCode());
+        verify(documentStorage, never()).store(any());
+        verify(documentRepository, never()).save(any());
+    }
+
+    @Test
+    void uploadDocument_AfterFailure_ShouldReleaseReservation() {
+        // Given
+        when(numeroPieceIndex.mightContain(uploadDTO.getNumeroPiece())).thenReturn(true);
+        when(documentRepository.existsByNumeroPiece(uploadDTO.getNumeroPiece())).thenReturn(true);
+
+        // When
+        assertThrows(BusinessException.class,
+                () -> documentService.uploadDocument(uploadDTO, validFile, societeUser));
+
+        // Then
+        assertTrue(numeroPieceReservations.reserve(uploadDTO.getNumeroPiece()));
     }
 
     @Test
@@ -227,20 +309,259 @@ class DocumentServiceTest {
         assertEquals("FILE_TOO_LARGE", exception.getCode());
     }
 
+    @Test
+    void uploadDocument_WithContentNotMatchingExtension_ShouldThrowException() {
+        // Given
+        MultipartFile disguisedFile = new MockMultipartFile(
+                "file",
+                "facture.pdf",
+                "application/pdf",
+                new byte[] { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10 });
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> documentService.uploadDocument(uploadDTO, disguisedFile, societeUser));
+
+        assertEquals("FILE_CONTENT_MISMATCH", exception.getCode());
+        verify(documentStorage, never()).store(any());
+    }
+
+    @Test
+    void uploadDocument_WithFormatNotAllowedForType_ShouldThrowException() {
+        // Given
+        uploadDTO.setTypeDocument(Document.TypeDocument.RELEVE_BANCAIRE);
+        MultipartFile photo = new MockMultipartFile(
+                "file",
+                "releve.jpg",
+                "image/jpeg",
+                new byte[] { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10 });
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> documentService.uploadDocument(uploadDTO, photo, societeUser));
+
+        assertEquals("INVALID_FILE_FORMAT", exception.getCode());
+    }
+
+    @Test
+    void uploadDocuments_WithMixedBatch_ShouldReportResultPerItem() {
+        // Given
+        DocumentUploadDTO existingDTO = DocumentUploadDTO.builder()
+                .numeroPiece("FAC-2024-000")
+                .typeDocument(Document.TypeDocument.FACTURE_ACHAT)
+                .categorieComptable("Achats")
+                .datePiece(LocalDate.now())
+                .montant(new BigDecimal("50.00"))
+                .fournisseur("Fournisseur Test")
+                .exerciceComptable(2024)
+                .build();
+        MultipartFile secondFile = new MockMultipartFile("files", "ticket.png", "image/png",
+                new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0 });
+        MultipartFile thirdFile = new MockMultipartFile("files", "copie.pdf", "application/pdf", "%PDF-1.7".getBytes());
+        StoredBlob blob = StoredBlob.builder()
+                .empreinteSha256("ab".repeat(32))
+                .cheminFichier("uploads/documents/blobs/ab/ab/" + "ab".repeat(32))
+                .tailleFichier(12L)
+                .nombreReferences(1)
+                .build();
+
+        when(numeroPieceIndex.mightContain(any())).thenAnswer(invocation -> "FAC-2024-000".equals(invocation.getArgument(0)));
+        when(documentRepository.findExistingNumeroPieces(Set.of("FAC-2024-000"))).thenReturn(Set.of("FAC-2024-000"));
+        when(documentStorage.store(validFile)).thenReturn(blob);
+        when(documentRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        DocumentBatchResultDTO result = documentService.uploadDocuments(
+                List.of(uploadDTO, existingDTO, uploadDTO),
+                List.of(validFile, secondFile, thirdFile),
+                societeUser);
+
+        // Then
+        assertEquals(3, result.getTotal());
+        assertEquals(1, result.getSucceeded());
+        assertEquals(2, result.getFailed());
+        assertTrue(result.getItems().get(0).isSuccess());
+        assertEquals("DUPLICATE_DOCUMENT", result.getItems().get(1).getCode());
+        assertEquals("DUPLICATE_DOCUMENT", result.getItems().get(2).getCode());
+        verify(documentRepository, never()).existsByNumeroPiece(any());
+        verify(documentStorage, times(1)).store(any());
+    }
+
+    @Test
+    void uploadDocuments_WithStorageFailure_ShouldOnlyFailThatItem() {
+        // Given
+        DocumentUploadDTO secondDTO = DocumentUploadDTO.builder()
+                .numeroPiece("FAC-2024-002")
+                .typeDocument(Document.TypeDocument.FACTURE_ACHAT)
+                .categorieComptable("Achats")
+                .datePiece(LocalDate.now())
+                .montant(new BigDecimal("50.00"))
+                .fournisseur("Fournisseur Test")
+                .exerciceComptable(2024)
+                .build();
+        MultipartFile secondFile = new MockMultipartFile("files", "copie.pdf", "application/pdf", "%PDF-1.7".getBytes());
+        StoredBlob blob = StoredBlob.builder()
+                .empreinteSha256("ab".repeat(32))
+                .cheminFichier("ab/ab/" + "ab".repeat(32))
+                .tailleFichier(12L)
+                .nombreReferences(1)
+                .build();
+
+        when(documentStorage.store(validFile)).thenReturn(blob);
+        when(documentStorage.store(secondFile)).thenThrow(new UncheckedIOException(new IOException("disk full")));
+        when(documentRepository.saveAndFlush(any(Document.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        DocumentBatchResultDTO result = documentService.uploadDocuments(
+                List.of(uploadDTO, secondDTO), List.of(validFile, secondFile), societeUser);
+
+        // Then
+        assertEquals(1, result.getSucceeded());
+        assertTrue(result.getItems().get(0).isSuccess());
+        assertEquals("FILE_SAVE_ERROR", result.getItems().get(1).getCode());
+        verify(documentRepository, never()).saveAllAndFlush(anyList());
+        verify(eventPublisher, times(1)).publishEvent(any(DocumentStoredEvent.class));
+    }
+
+    @Test
+    void uploadDocuments_WithNumeroPieceTakenConcurrently_ShouldOnlyFailThatItem() {
+        // Given
+        DocumentUploadDTO secondDTO = DocumentUploadDTO.builder()
+                .numeroPiece("FAC-2024-002")
+                .typeDocument(Document.TypeDocument.FACTURE_ACHAT)
+                .categorieComptable("Achats")
+                .datePiece(LocalDate.now())
+                .montant(new BigDecimal("50.00"))
+                .fournisseur("Fournisseur Test")
+                .exerciceComptable(2024)
+                .build();
+        MultipartFile secondFile = new MockMultipartFile("files", "copie.pdf", "application/pdf", "%PDF-1.7".getBytes());
+        StoredBlob blob = StoredBlob.builder()
+                .empreinteSha256("ab".repeat(32))
+                .cheminFichier("ab/ab/" + "ab".repeat(32))
+                .tailleFichier(12L)
+                .nombreReferences(1)
+                .build();
+
+        when(documentStorage.store(any())).thenReturn(blob);
+        when(documentRepository.saveAllAndFlush(anyList()))
+                .thenThrow(new DataIntegrityViolationException("uk_documents_numero_piece"));
+        when(documentRepository.saveAndFlush(any(Document.class))).thenAnswer(invocation -> {
+            Document saved = invocation.getArgument(0);
+            if ("FAC-2024-002".equals(saved.getNumeroPiece())) {
+                throw new DataIntegrityViolationException("uk_documents_numero_piece");
+            }
+            return saved;
+        });
+
+        // When
+        DocumentBatchResultDTO result = documentService.uploadDocuments(
+                List.of(uploadDTO, secondDTO), List.of(validFile, secondFile), societeUser);
+
+        // Then
+        assertEquals(1, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertTrue(result.getItems().get(0).isSuccess());
+        assertFalse(result.getItems().get(1).isSuccess());
+        assertEquals("DUPLICATE_DOCUMENT", result.getItems().get(1).getCode());
+    }
+
+    @Test
+    void uploadDocuments_ShouldStoreFilesInDigestOrderAndReportThemInManifestOrder() throws Exception {
+        // Given
+        DocumentUploadDTO secondDTO = DocumentUploadDTO.builder()
+                .numeroPiece("FAC-2024-002")
+                .typeDocument(Document.TypeDocument.FACTURE_ACHAT)
+                .categorieComptable("Achats")
+                .datePiece(LocalDate.now())
+                .montant(new BigDecimal("50.00"))
+                .fournisseur("Fournisseur Test")
+                .exerciceComptable(2024)
+                .build();
+        MultipartFile secondFile = new MockMultipartFile("files", "copie.pdf", "application/pdf", "%PDF-1.7".getBytes());
+        StoredBlob blob = StoredBlob.builder()
+                .empreinteSha256("ab".repeat(32))
+                .cheminFichier("ab/ab/" + "ab".repeat(32))
+                .tailleFichier(12L)
+                .nombreReferences(1)
+                .build();
+        when(documentStorage.store(any())).thenReturn(blob);
+        when(documentRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        boolean secondFirst = sha256(secondFile).compareTo(sha256(validFile)) < 0;
+
+        // When
+        DocumentBatchResultDTO result = documentService.uploadDocuments(
+                List.of(uploadDTO, secondDTO), List.of(validFile, secondFile), societeUser);
+
+        // Then
+        InOrder inOrder = inOrder(documentStorage);
+        inOrder.verify(documentStorage).store(secondFirst ? secondFile : validFile);
+        inOrder.verify(documentStorage).store(secondFirst ? validFile : secondFile);
+        assertEquals(2, result.getSucceeded());
+        assertEquals("FAC-2024-001", result.getItems().get(0).getNumeroPiece());
+        assertEquals("FAC-2024-001", result.getItems().get(0).getDocument().getNumeroPiece());
+        assertEquals("FAC-2024-002", result.getItems().get(1).getDocument().getNumeroPiece());
+    }
+
+    @Test
+    void uploadDocuments_WithLockFailure_ShouldReplayItemByItem() {
+        // Given
+        DocumentUploadDTO secondDTO = DocumentUploadDTO.builder()
+                .numeroPiece("FAC-2024-002")
+                .typeDocument(Document.TypeDocument.FACTURE_ACHAT)
+                .categorieComptable("Achats")
+                .datePiece(LocalDate.now())
+                .montant(new BigDecimal("50.00"))
+                .fournisseur("Fournisseur Test")
+                .exerciceComptable(2024)
+                .build();
+        MultipartFile secondFile = new MockMultipartFile("files", "copie.pdf", "application/pdf", "%PDF-1.7".getBytes());
+        StoredBlob blob = StoredBlob.builder()
+                .empreinteSha256("ab".repeat(32))
+                .cheminFichier("ab/ab/" + "ab".repeat(32))
+                .tailleFichier(12L)
+                .nombreReferences(1)
+                .build();
+        // The blob row of the second file is held by another batch: the whole batch times out on it,
+        // then again when the item is replayed on its own
+        when(documentStorage.store(validFile)).thenReturn(blob);
+        when(documentStorage.store(secondFile)).thenThrow(new CannotAcquireLockException("lock timeout"));
+        when(documentRepository.saveAndFlush(any(Document.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        DocumentBatchResultDTO result = documentService.uploadDocuments(
+                List.of(uploadDTO, secondDTO), List.of(validFile, secondFile), societeUser);
+
+        // Then
+        assertEquals(1, result.getSucceeded());
+        assertTrue(result.getItems().get(0).isSuccess());
+        assertEquals("STORAGE_BUSY", result.getItems().get(1).getCode());
+        verify(transactionManager, atLeastOnce()).rollback(any());
+    }
+
+    @Test
+    void uploadDocuments_WithManifestFileCountMismatch_ShouldThrowException() {
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> documentService.uploadDocuments(List.of(uploadDTO), List.of(), societeUser));
+
+        assertEquals("BATCH_MISMATCH", exception.getCode());
+    }
+
     @Test
     void getDocumentsBySocieteAndExercice_WithValidData_ShouldReturnDocuments() {
         // Given
-        List<Document> documents = Arrays.asList(document);
         when(societeRepository.findById(1L)).thenReturn(Optional.of(societe));
-        when(documentRepository.findBySocieteAndExerciceComptable(societe, 2024)).thenReturn(documents);
+        when(documentRepository.findPage(any(), any(), anyInt())).thenReturn(List.of(listed(document)));
 
         // When
-        List<DocumentResponseDTO> result = documentService.getDocumentsBySocieteAndExercice(1L, 2024);
+        DocumentPageDTO result = documentService.getDocumentsBySocieteAndExercice(1L, 2024, null, null);
 
         // Then
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals("FAC-2024-001", result.get(0).getNumeroPiece());
+        assertEquals(1, result.getSize());
+        assertEquals("FAC-2024-001", result.getItems().get(0).getNumeroPiece());
+        assertNull(result.getNextCursor());
     }
 
     @Test
@@ -250,38 +571,121 @@ class DocumentServiceTest {
 
         // When & Then
         assertThrows(ResourceNotFoundException.class,
-                () -> documentService.getDocumentsBySocieteAndExercice(999L, 2024));
+                () -> documentService.getDocumentsBySocieteAndExercice(999L, 2024, null, null));
     }
 
     @Test
     void getAllPendingDocuments_ShouldReturnPendingDocuments() {
         // Given
-        List<Document> pendingDocuments = Arrays.asList(document);
-        when(documentRepository.findByStatut(Document.StatutDocument.EN_ATTENTE)).thenReturn(pendingDocuments);
+        when(documentRepository.findPage(any(), any(), anyInt())).thenReturn(List.of(listed(document)));
 
         // When
-        List<DocumentResponseDTO> result = documentService.getAllPendingDocuments();
+        DocumentPageDTO result = documentService.getAllPendingDocuments(null, null);
 
         // Then
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(Document.StatutDocument.EN_ATTENTE, document.getStatut());
+        assertEquals(1, result.getSize());
+        assertEquals(Document.StatutDocument.EN_ATTENTE, result.getItems().get(0).getStatut());
+    }
+
+    @Test
+    void getAllPendingDocuments_WithMoreRowsThanPageSize_ShouldReturnNextCursor() {
+        // Given
+        Document second = Document.builder()
+                .id(2L)
+                .numeroPiece("FAC-2024-002")
+                .statut(Document.StatutDocument.EN_ATTENTE)
+                .societe(societe)
+                .uploadedBy(societeUser)
+                .createdAt(document.getCreatedAt().plusSeconds(1))
+                .build();
+        when(documentRepository.findPage(any(), any(), anyInt())).thenReturn(List.of(listed(document), listed(second)));
+
+        // When
+        DocumentPageDTO result = documentService.getAllPendingDocuments(null, 1);
+
+        // Then
+        assertEquals(1, result.getSize());
+        assertEquals(document.getId(), result.getItems().get(0).getId());
+        assertEquals(new DocumentCursor(DocumentSearchDTO.Tri.DATE_CREATION, document.getCreatedAt(), document.getId()),
+                DocumentCursor.decode(result.getNextCursor(), DocumentSearchDTO.Tri.DATE_CREATION));
+    }
+
+    @Test
+    void getAllPendingDocuments_WithInvalidCursor_ShouldThrowException() {
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> documentService.getAllPendingDocuments("not a cursor", null));
+
+        assertEquals("INVALID_CURSOR", exception.getCode());
+    }
+
+    @Test
+    void searchDocuments_SortedByMontant_ShouldOrderAndPageOnMontant() {
+        // Given
+        DocumentSearchDTO criteria = DocumentSearchDTO.builder()
+                .fournisseur("test")
+                .montantMin(new BigDecimal("500"))
+                .tri(DocumentSearchDTO.Tri.MONTANT)
+                .sens(DocumentSearchDTO.Sens.DESC)
+                .build();
+        Document second = Document.builder()
+                .id(2L)
+                .montant(new BigDecimal("800.00"))
+                .build();
+        when(documentRepository.findPage(any(), any(), anyInt())).thenReturn(List.of(listed(document), listed(second)));
+
+        // When
+        DocumentPageDTO result = documentService.searchDocuments(criteria, null, 1);
+
+        // Then
+        verify(documentRepository).findPage(any(), eq(Sort.by(Sort.Direction.DESC, "montant", "id")), eq(2));
+        assertEquals(1, result.getSize());
+        assertEquals(new DocumentCursor(DocumentSearchDTO.Tri.MONTANT, new BigDecimal("1000.00"), 1L),
+                DocumentCursor.decode(result.getNextCursor(), DocumentSearchDTO.Tri.MONTANT));
+    }
+
+    @Test
+    void searchDocuments_WithCursorFromAnotherSort_ShouldThrowException() {
+        // Given
+        String cursor = new DocumentCursor(DocumentSearchDTO.Tri.DATE_CREATION, document.getCreatedAt(), 1L).encode();
+        DocumentSearchDTO criteria = DocumentSearchDTO.builder().tri(DocumentSearchDTO.Tri.MONTANT).build();
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> documentService.searchDocuments(criteria, cursor, null));
+
+        assertEquals("INVALID_CURSOR", exception.getCode());
+    }
+
+    @Test
+    void searchDocuments_WithInvertedDateRange_ShouldThrowException() {
+        // Given
+        DocumentSearchDTO criteria = DocumentSearchDTO.builder()
+                .dateDebut(LocalDate.of(2024, 12, 31))
+                .dateFin(LocalDate.of(2024, 1, 1))
+                .build();
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> documentService.searchDocuments(criteria, null, null));
+
+        assertEquals("INVALID_SEARCH", exception.getCode());
+        verify(documentRepository, never()).findPage(any(), any(), anyInt());
     }
 
     @Test
     void getPendingDocumentsByExercice_ShouldReturnFilteredDocuments() {
         // Given
-        List<Document> documents = Arrays.asList(document);
-        when(documentRepository.findByStatutAndExerciceComptable(Document.StatutDocument.EN_ATTENTE, 2024))
-                .thenReturn(documents);
+        when(documentRepository.findPage(any(), any(), anyInt())).thenReturn(List.of(listed(document)));
 
         // When
-        List<DocumentResponseDTO> result = documentService.getPendingDocumentsByExercice(2024);
+        DocumentPageDTO result = documentService.getPendingDocumentsByExercice(2024, null, null);
 
         // Then
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(2024, result.get(0).getExerciceComptable());
+        assertEquals(1, result.getSize());
+        assertEquals(2024, result.getItems().get(0).getExerciceComptable());
     }
 
     @Test
@@ -376,16 +780,15 @@ class DocumentServiceTest {
     @Test
     void getDocumentsBySociete_WithValidSocieteId_ShouldReturnDocuments() {
         // Given
-        List<Document> documents = Arrays.asList(document);
         when(societeRepository.findById(1L)).thenReturn(Optional.of(societe));
-        when(documentRepository.findBySociete(societe)).thenReturn(documents);
+        when(documentRepository.findPage(any(), any(), anyInt())).thenReturn(List.of(listed(document)));
 
         // When
-        List<DocumentResponseDTO> result = documentService.getDocumentsBySociete(1L);
+        DocumentPageDTO result = documentService.getDocumentsBySociete(1L, null, null);
 
         // Then
         assertNotNull(result);
-        assertEquals(1, result.size());
+        assertEquals(1, result.getSize());
     }
 
     @Test
@@ -394,7 +797,55 @@ class DocumentServiceTest {
         when(societeRepository.findById(999L)).thenReturn(Optional.empty());
 
         // When & Then
-        assertThrows(ResourceNotFoundException.class, () -> documentService.getDocumentsBySociete(999L));
+        assertThrows(ResourceNotFoundException.class, () -> documentService.getDocumentsBySociete(999L, null, null));
+    }
+
+    @Test
+    void downloadDocument_WithExistingFile_ShouldReturnStreamingResource() throws Exception {
+        // Given
+        Path storedFile = tempDir.resolve("stored.pdf");
+        Files.write(storedFile, "pdf content".getBytes());
+        document.setCheminFichier(storedFile.toString());
+        when(documentRepository.findById(1L)).thenReturn(Optional.of(document));
+
+        // When
+        DocumentFileDTO result = documentService.downloadDocument(1L);
+
+        // Then
+        assertEquals("facture.pdf", result.getNomFichierOriginal());
+        assertEquals(11, result.getContentLength());
+        assertTrue(result.getResource().isFile());
+        assertTrue(result.getEtag().startsWith("\"1-"));
+    }
+
+    @Test
+    void downloadDocument_WithStoredBlob_ShouldOpenItFromStorage() throws Exception {
+        // Given
+        document.setEmpreinteSha256("abc123");
+        when(documentRepository.findById(1L)).thenReturn(Optional.of(document));
+        when(documentStorage.open("abc123"))
+                .thenReturn(new StorageResource(mock(StorageBackend.class), "ab/c1/abc123", 11, 1_700_000_000_000L));
+
+        // When
+        DocumentFileDTO result = documentService.downloadDocument(1L);
+
+        // Then
+        assertEquals(11, result.getContentLength());
+        assertEquals(1_700_000_000_000L, result.getLastModified());
+        verify(documentStorage).open("abc123");
+    }
+
+    @Test
+    void downloadDocument_WithMissingFile_ShouldThrowException() {
+        // Given
+        document.setCheminFichier(tempDir.resolve("missing.pdf").toString());
+        when(documentRepository.findById(1L)).thenReturn(Optional.of(document));
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> documentService.downloadDocument(1L));
+
+        assertEquals("FILE_READ_ERROR", exception.getCode());
     }
 
     @Test
@@ -437,4 +888,20 @@ class DocumentServiceTest {
         verify(documentRepository).save(argThat(doc -> doc.getStatut() == Document.StatutDocument.REJETE &&
                 "Document incomplet".equals(doc.getCommentaireComptable())));
     }
+
+    private DocumentResponseDTO listed(Document document) {
+        return DocumentResponseDTO.builder()
+                .id(document.getId())
+                .numeroPiece(document.getNumeroPiece())
+                .statut(document.getStatut())
+                .datePiece(document.getDatePiece())
+                .montant(document.getMontant())
+                .exerciceComptable(document.getExerciceComptable())
+                .createdAt(document.getCreatedAt())
+                .build();
+    }
+
+    private static String sha256(MultipartFile file) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(file.getBytes()));
+    }
 }
@@ -0,0 +1,332 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.StoredBlob;
+import com.example.demo.repository.StoredBlobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentStorageServiceTest {
+
+    // SHA-256 of "test content"
+    private static final String EMPREINTE = "6ae8a75555209fd6c44157c0aed8016e763ff435a19cf186f76863140143ff72";
+
+    @Mock
+    private StoredBlobRepository storedBlobRepository;
+
+    @Spy
+    private LocalStorageBackend storageBackend;
+
+    @Mock
+    private StorageIntentService storageIntents;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private DocumentStorageService documentStorageService;
+
+    @TempDir
+    Path tempDir;
+
+    private MockMultipartFile file;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(storageBackend, "blobDir", tempDir.toString());
+        ReflectionTestUtils.setField(documentStorageService, "stagingDir", tempDir.resolve(".tmp").toString());
+        ReflectionTestUtils.setField(documentStorageService, "shardDepth", 2);
+        ReflectionTestUtils.setField(documentStorageService, "shardWidth", 2);
+        file = new MockMultipartFile("file", "facture.pdf", "application/pdf", "test content".getBytes());
+    }
+
+    @Test
+    void store_WithNewContent_ShouldWriteBlobUnderItsDigest() throws Exception {
+        // Given
+        givenInsertedBlobs();
+
+        // When
+        StoredBlob blob = documentStorageService.store(file);
+
+        // Then
+        Path expected = tempDir.resolve("6a").resolve("e8").resolve(EMPREINTE);
+        assertEquals(EMPREINTE, blob.getEmpreinteSha256());
+        assertEquals("6a/e8/" + EMPREINTE, blob.getCheminFichier());
+        assertEquals(12L, blob.getTailleFichier());
+        assertEquals(1, blob.getNombreReferences());
+        assertArrayEquals("test content".getBytes(), Files.readAllBytes(expected));
+        verify(storageIntents).begin("6a/e8/" + EMPREINTE);
+        verify(storageIntents).complete(any());
+    }
+
+    @Test
+    void store_WithKnownContent_ShouldReuseBlobAndIncrementReferences() throws Exception {
+        // Given
+        StoredBlob existing = StoredBlob.builder()
+                .id(7L)
+                .empreinteSha256(EMPREINTE)
+                .cheminFichier("existing")
+                .tailleFichier(12L)
+                .nombreReferences(1)
+                .build();
+        when(storedBlobRepository.findByEmpreinteSha256ForUpdate(EMPREINTE)).thenReturn(Optional.of(existing));
+
+        // When
+        StoredBlob blob = documentStorageService.store(file);
+
+        // Then
+        assertSame(existing, blob);
+        assertEquals(2, blob.getNombreReferences());
+        verify(storedBlobRepository, never()).saveAndFlush(any());
+        try (var files = Files.list(tempDir.resolve(".tmp"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void release_WithLastReference_ShouldDeleteBlob() throws Exception {
+        // Given
+        Path blobPath = Files.writeString(tempDir.resolve(EMPREINTE), "test content");
+        StoredBlob blob = StoredBlob.builder()
+                .id(7L)
+                .empreinteSha256(EMPREINTE)
+                .cheminFichier(EMPREINTE)
+                .tailleFichier(12L)
+                .nombreReferences(0)
+                .build();
+        when(storedBlobRepository.findByEmpreinteSha256(EMPREINTE)).thenReturn(Optional.of(blob));
+        when(storedBlobRepository.findReferenceCount(7L)).thenReturn(0);
+        when(storedBlobRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(blob));
+
+        // When
+        documentStorageService.release(EMPREINTE);
+
+        // Then
+        verify(storedBlobRepository).delete(blob);
+        assertFalse(Files.exists(blobPath));
+    }
+
+    @Test
+    void release_WithBlobReferencedAgainBeforeReap_ShouldKeepBlob() throws Exception {
+        // Given
+        Path blobPath = Files.writeString(tempDir.resolve(EMPREINTE), "test content");
+        StoredBlob blob = StoredBlob.builder()
+                .id(7L)
+                .empreinteSha256(EMPREINTE)
+                .cheminFichier(EMPREINTE)
+                .tailleFichier(12L)
+                .nombreReferences(1)
+                .build();
+        when(storedBlobRepository.findByEmpreinteSha256(EMPREINTE)).thenReturn(Optional.of(blob));
+        when(storedBlobRepository.findReferenceCount(7L)).thenReturn(0);
+        when(storedBlobRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(blob));
+
+        // When
+        documentStorageService.release(EMPREINTE);
+
+        // Then
+        verify(storedBlobRepository, never()).delete(any(StoredBlob.class));
+        assertTrue(Files.exists(blobPath));
+    }
+
+    @Test
+    void store_WithConcurrentIdenticalUpload_ShouldReferenceTheWinningBlob() throws Exception {
+        // Given
+        StoredBlob winner = StoredBlob.builder()
+                .id(7L)
+                .empreinteSha256(EMPREINTE)
+                .cheminFichier("6a/e8/" + EMPREINTE)
+                .tailleFichier(12L)
+                .nombreReferences(1)
+                .build();
+        when(storedBlobRepository.findByEmpreinteSha256ForUpdate(EMPREINTE))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(winner));
+        when(storedBlobRepository.saveAndFlush(any(StoredBlob.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_stored_blobs_empreinte"));
+
+        // When
+        StoredBlob blob = documentStorageService.store(file);
+
+        // Then
+        assertSame(winner, blob);
+        assertEquals(2, winner.getNombreReferences());
+        assertTrue(Files.exists(tempDir.resolve("6a").resolve("e8").resolve(EMPREINTE)));
+    }
+
+    @Test
+    void store_WhenUploadRollsBack_ShouldReclaimTheNewBlob() throws Exception {
+        // Given
+        givenInsertedBlobs();
+        TransactionSynchronizationManager.initSynchronization();
+        StoredBlob blob;
+        try {
+            blob = documentStorageService.store(file);
+
+            // When: the upload transaction rolls back, leaving the committed row without references
+            blob.setNombreReferences(0);
+            when(storedBlobRepository.findByIdForUpdate(blob.getId())).thenReturn(Optional.of(blob));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then
+        verify(storedBlobRepository).delete(blob);
+        assertFalse(Files.exists(tempDir.resolve("6a").resolve("e8").resolve(EMPREINTE)));
+    }
+
+    @Test
+    void adopt_WithLegacyFile_ShouldMoveItIntoTheBlobStore() throws Exception {
+        // Given
+        Path legacy = Files.writeString(tempDir.resolve("legacy.pdf"), "test content");
+        givenInsertedBlobs();
+
+        // When
+        StoredBlob blob = documentStorageService.adopt(legacy);
+
+        // Then
+        Path expected = tempDir.resolve("6a").resolve("e8").resolve(EMPREINTE);
+        assertEquals("6a/e8/" + EMPREINTE, blob.getCheminFichier());
+        assertTrue(Files.exists(expected));
+        assertFalse(Files.exists(legacy));
+    }
+
+    @Test
+    void relocate_WithOldLayout_ShouldMoveBlobToCurrentShard() throws Exception {
+        // Given
+        Path oldPath = Files.writeString(tempDir.resolve(EMPREINTE), "test content");
+        StoredBlob blob = StoredBlob.builder()
+                .id(7L)
+                .empreinteSha256(EMPREINTE)
+                .cheminFichier(oldPath.toString())
+                .tailleFichier(12L)
+                .nombreReferences(1)
+                .build();
+        when(storedBlobRepository.save(blob)).thenReturn(blob);
+
+        // When
+        boolean moved = documentStorageService.relocate(blob);
+
+        // Then
+        Path expected = tempDir.resolve("6a").resolve("e8").resolve(EMPREINTE);
+        assertTrue(moved);
+        assertEquals("6a/e8/" + EMPREINTE, blob.getCheminFichier());
+        assertTrue(Files.exists(expected));
+        assertFalse(documentStorageService.relocate(blob));
+    }
+
+    @Test
+    void open_WithStoredBlob_ShouldReadRequestedRangeFromBackend() throws Exception {
+        // Given
+        Files.createDirectories(tempDir.resolve("6a").resolve("e8"));
+        Files.writeString(tempDir.resolve("6a").resolve("e8").resolve(EMPREINTE), "test content");
+        StoredBlob blob = StoredBlob.builder()
+                .id(7L)
+                .empreinteSha256(EMPREINTE)
+                .cheminFichier("6a/e8/" + EMPREINTE)
+                .tailleFichier(12L)
+                .nombreReferences(1)
+                .build();
+        when(storedBlobRepository.findByEmpreinteSha256(EMPREINTE)).thenReturn(Optional.of(blob));
+
+        // When
+        Resource resource = documentStorageService.open(EMPREINTE);
+        byte[] tail;
+        try (InputStream in = resource.getInputStream()) {
+            assertEquals(5, in.skip(5));
+            tail = in.readAllBytes();
+        }
+
+        // Then
+        assertEquals(12L, resource.contentLength());
+        assertArrayEquals("content".getBytes(), tail);
+        verify(storageBackend).getRange("6a/e8/" + EMPREINTE, 5, 7);
+    }
+
+    @Test
+    void store_WithCompressiblePdf_ShouldDeflateAndServeOriginalContent() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(documentStorageService, "compressionEnabled", true);
+        ReflectionTestUtils.setField(documentStorageService, "compressionTypes", new String[] { "PDF" });
+        ReflectionTestUtils.setField(documentStorageService, "compressionLevel", 6);
+        ReflectionTestUtils.setField(documentStorageService, "compressionMinSavingsPercent", 10);
+        byte[] content = ("%PDF-1.4\n" + "BT /F1 12 Tf (Facture) Tj ET\n".repeat(200)).getBytes();
+        MockMultipartFile pdf = new MockMultipartFile("file", "facture.pdf", "application/pdf", content);
+        givenInsertedBlobs();
+
+        // When
+        StoredBlob blob = documentStorageService.store(pdf);
+        when(storedBlobRepository.findByEmpreinteSha256(blob.getEmpreinteSha256())).thenReturn(Optional.of(blob));
+        Resource resource = documentStorageService.open(blob.getEmpreinteSha256());
+        byte[] tail;
+        try (InputStream in = resource.getInputStream()) {
+            assertEquals(9, in.skip(9));
+            tail = in.readAllBytes();
+        }
+
+        // Then
+        assertEquals(StoredBlob.Compression.DEFLATE, blob.getCompression());
+        assertEquals(content.length, blob.getTailleFichier());
+        assertTrue(blob.getTailleStockee() < content.length / 10);
+        assertEquals(blob.getTailleStockee(), Files.size(tempDir.resolve(blob.getCheminFichier())));
+        assertEquals(content.length, resource.contentLength());
+        assertArrayEquals(Arrays.copyOfRange(content, 9, content.length), tail);
+    }
+
+    @Test
+    void store_WithIncompressibleContent_ShouldStoreAsIs() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(documentStorageService, "compressionEnabled", true);
+        ReflectionTestUtils.setField(documentStorageService, "compressionTypes", new String[] { "PDF" });
+        givenInsertedBlobs();
+
+        // When
+        StoredBlob blob = documentStorageService.store(file);
+
+        // Then
+        assertEquals(StoredBlob.Compression.NONE, blob.getCompression());
+        assertEquals(12L, blob.getTailleStockee());
+    }
+
+    /**
+     * Rows saved by the service get an id and are found again by the locking lookup, as in the database.
+     */
+    private void givenInsertedBlobs() {
+        Map<String, StoredBlob> inserted = new HashMap<>();
+        when(storedBlobRepository.saveAndFlush(any(StoredBlob.class))).thenAnswer(invocation -> {
+            StoredBlob blob = invocation.getArgument(0);
+            blob.setId((long) inserted.size() + 1);
+            inserted.put(blob.getEmpreinteSha256(), blob);
+            return blob;
+        });
+        when(storedBlobRepository.findByEmpreinteSha256ForUpdate(any()))
+                .thenAnswer(invocation -> Optional.ofNullable(inserted.get(invocation.<String>getArgument(0))));
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.demo.service;
+
+import com.example.demo.contract.DocumentPreviewContract;
+import com.example.demo.contract.DocumentStorageContract;
+import com.example.demo.entity.Document;
+import com.example.demo.entity.StoredBlob;
+import com.example.demo.event.DocumentStoredEvent;
+import com.example.demo.repository.DocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageNormalizationServiceTest {
+
+    private static final String ORIGINAL = "a".repeat(64);
+    private static final String NORMALIZED = "b".repeat(64);
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private DocumentStorageContract documentStorage;
+
+    @Mock
+    private DocumentPreviewContract documentPreview;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ImageNormalizationService imageNormalizationService;
+
+    @TempDir
+    Path tempDir;
+
+    private Document document;
+
+    @BeforeEach
+    void setUp() {
+        imageNormalizationService = new ImageNormalizationService(documentRepository, documentStorage,
+                documentPreview, new SyncTaskExecutor(), transactionManager);
+        ReflectionTestUtils.setField(imageNormalizationService, "enabled", true);
+        ReflectionTestUtils.setField(imageNormalizationService, "types", new String[] { "TICKET_CAISSE" });
+        ReflectionTestUtils.setField(imageNormalizationService, "maxDimension", 100);
+        ReflectionTestUtils.setField(imageNormalizationService, "maxPixels", 1_000_000L);
+        ReflectionTestUtils.setField(imageNormalizationService, "jpegQuality", 0.8f);
+        ReflectionTestUtils.setField(imageNormalizationService, "stagingDir", tempDir.toString());
+
+        document = Document.builder()
+                .id(1L)
+                .typeDocument(Document.TypeDocument.TICKET_CAISSE)
+                .nomFichierOriginal("ticket.png")
+                .cheminFichier("aa/aa/" + ORIGINAL)
+                .empreinteSha256(ORIGINAL)
+                .statut(Document.StatutDocument.EN_ATTENTE)
+                .build();
+    }
+
+    @Test
+    void onDocumentStored_WithOversizedImage_ShouldSwapDocumentOntoReencodedBlob() throws Exception {
+        // Given
+        byte[] upload = png(800, 600);
+        document.setTailleFichier((long) upload.length);
+        when(documentRepository.findById(1L)).thenReturn(Optional.of(document));
+        when(documentRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(document));
+        when(documentStorage.open(ORIGINAL)).thenReturn(new ByteArrayResource(upload));
+        when(documentStorage.adopt(any())).thenAnswer(invocation -> StoredBlob.builder()
+                .empreinteSha256(NORMALIZED)
+                .cheminFichier("bb/bb/" + NORMALIZED)
+                .tailleFichier(Files.size(invocation.<Path>getArgument(0)))
+                .build());
+
+        // When
+        imageNormalizationService.onDocumentStored(new DocumentStoredEvent(1L, Document.TypeDocument.TICKET_CAISSE));
+
+        // Then
+        assertEquals(NORMALIZED, document.getEmpreinteSha256());
+        assertEquals("ticket.jpg", document.getNomFichierOriginal());
+        assertTrue(document.getTailleFichier() < upload.length);
+        assertNull(document.getEmpreinteOriginale());
+        verify(documentStorage).release(ORIGINAL);
+        verify(documentPreview).evict(1L);
+        try (var staged = Files.list(tempDir)) {
+            assertEquals(0, staged.count());
+        }
+    }
+
+    @Test
+    void normalize_WithKeepOriginalPolicy_ShouldKeepOriginalBlob() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(imageNormalizationService, "keepOriginal", true);
+        byte[] upload = png(800, 600);
+        document.setTailleFichier((long) upload.length);
+        when(documentRepository.findById(1L)).thenReturn(Optional.of(document));
+        when(documentRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(document));
+        when(documentStorage.open(ORIGINAL)).thenReturn(new ByteArrayResource(upload));
+        when(documentStorage.adopt(any())).thenReturn(StoredBlob.builder()
+                .empreinteSha256(NORMALIZED).cheminFichier("bb/bb/" + NORMALIZED).tailleFichier(100L).build());
+
+        // When
+        boolean normalized = imageNormalizationService.normalize(1L);
+
+        // Then
+        assertTrue(normalized);
+        assertEquals(ORIGINAL, document.getEmpreinteOriginale());
+        verify(documentStorage, never()).release(any());
+    }
+
+    @Test
+    void normalize_WithSmallImage_ShouldLeaveDocumentUntouched() throws Exception {
+        // Given
+        byte[] upload = png(80, 60);
+        document.setTailleFichier((long) upload.length);
+        when(documentRepository.findById(1L)).thenReturn(Optional.of(document));
+        when(documentStorage.open(ORIGINAL)).thenReturn(new ByteArrayResource(upload));
+
+        // When
+        boolean normalized = imageNormalizationService.normalize(1L);
+
+        // Then
+        assertFalse(normalized);
+        assertEquals(ORIGINAL, document.getEmpreinteSha256());
+        verify(documentStorage, never()).adopt(any());
+    }
+
+    @Test
+    void normalize_WithImageOverPixelLimit_ShouldKeepOriginalBytes() throws Exception {
+        // Given
+        byte[] upload = png(2000, 1000);
+        document.setTailleFichier((long) upload.length);
+        when(documentRepository.findById(1L)).thenReturn(Optional.of(document));
+        when(documentStorage.open(ORIGINAL)).thenReturn(new ByteArrayResource(upload));
+
+        // When
+        boolean normalized = imageNormalizationService.normalize(1L);
+
+        // Then
+        assertFalse(normalized);
+        assertEquals(ORIGINAL, document.getEmpreinteSha256());
+        verify(documentStorage, never()).adopt(any());
+        verify(documentStorage, never()).release(any());
+    }
+
+    @Test
+    void normalize_WithDocumentValidatedDuringReencoding_ShouldKeepItsContent() throws Exception {
+        // Given
+        byte[] upload = png(800, 600);
+        document.setTailleFichier((long) upload.length);
+        Document validated = Document.builder()
+                .id(1L)
+                .empreinteSha256(ORIGINAL)
+                .tailleFichier((long) upload.length)
+                .statut(Document.StatutDocument.VALIDE)
+                .build();
+        when(documentRepository.findById(1L)).thenReturn(Optional.of(document));
+        when(documentRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(validated));
+        when(documentStorage.open(ORIGINAL)).thenReturn(new ByteArrayResource(upload));
+
+        // When
+        boolean normalized = imageNormalizationService.normalize(1L);
+
+        // Then
+        assertFalse(normalized);
+        assertEquals(ORIGINAL, validated.getEmpreinteSha256());
+        verify(documentStorage, never()).adopt(any());
+        verify(documentPreview, never()).evict(any());
+        try (var staged = Files.list(tempDir)) {
+            assertEquals(0, staged.count());
+        }
+    }
+
+    @Test
+    void onDocumentStored_WithOtherType_ShouldNotNormalize() {
+        // When
+        imageNormalizationService.onDocumentStored(new DocumentStoredEvent(1L, Document.TypeDocument.FACTURE_ACHAT));
+
+        // Then
+        verifyNoInteractions(documentRepository, documentStorage);
+    }
+
+    private byte[] png(int width, int height) throws Exception {
+        // Noise does not compress, like the sensor noise of a phone photo
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
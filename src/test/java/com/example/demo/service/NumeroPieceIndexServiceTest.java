@@ -0,0 +1,69 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.DocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NumeroPieceIndexServiceTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @InjectMocks
+    private NumeroPieceIndexService numeroPieceIndexService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(numeroPieceIndexService, "expectedInsertions", 10_000L);
+        ReflectionTestUtils.setField(numeroPieceIndexService, "falsePositiveRate", 0.01);
+        numeroPieceIndexService.init();
+    }
+
+    @Test
+    void mightContain_BeforeWarmUp_ShouldAlwaysFallBackToDatabase() {
+        assertTrue(numeroPieceIndexService.mightContain("FAC-2024-001"));
+    }
+
+    @Test
+    void mightContain_AfterWarmUp_ShouldKnowExistingNumbers() {
+        // Given
+        when(documentRepository.streamAllNumeroPieces())
+                .thenReturn(IntStream.range(0, 5_000).mapToObj(i -> "FAC-" + i));
+
+        // When
+        numeroPieceIndexService.warmUp();
+
+        // Then
+        IntStream.range(0, 5_000).forEach(i -> assertTrue(numeroPieceIndexService.mightContain("FAC-" + i)));
+        long falsePositives = IntStream.range(0, 5_000)
+                .filter(i -> numeroPieceIndexService.mightContain("AVO-" + i))
+                .count();
+        assertTrue(falsePositives < 100, "Too many false positives: " + falsePositives);
+    }
+
+    @Test
+    void add_AfterWarmUp_ShouldMakeNumberVisible() {
+        // Given
+        when(documentRepository.streamAllNumeroPieces()).thenReturn(Stream.empty());
+        numeroPieceIndexService.warmUp();
+        assertFalse(numeroPieceIndexService.mightContain("FAC-2024-001"));
+
+        // When
+        numeroPieceIndexService.add("FAC-2024-001");
+
+        // Then
+        assertTrue(numeroPieceIndexService.mightContain("FAC-2024-001"));
+    }
+}
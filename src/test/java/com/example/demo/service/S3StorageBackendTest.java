@@ -0,0 +1,255 @@
+package com.example.demo.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class S3StorageBackendTest {
+
+    private static final String KEY = "6a/e8/6ae8a75555209fd6c44157c0aed8016e763ff435a19cf186f76863140143ff72";
+
+    private final FakeS3 fakeS3 = new FakeS3();
+    private HttpServer server;
+    private S3StorageBackend backend;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", fakeS3::handle);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+
+        backend = new S3StorageBackend();
+        ReflectionTestUtils.setField(backend, "endpoint", "http://127.0.0.1:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(backend, "region", "us-east-1");
+        ReflectionTestUtils.setField(backend, "bucket", "documents");
+        ReflectionTestUtils.setField(backend, "accessKey", "test-key");
+        ReflectionTestUtils.setField(backend, "secretKey", "test-secret");
+        ReflectionTestUtils.setField(backend, "partSize", 4L);
+        ReflectionTestUtils.setField(backend, "uploadConcurrency", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void put_WithFileLargerThanOnePart_ShouldUseMultipartUpload() throws Exception {
+        // Given
+        Path source = Files.writeString(tempDir.resolve("source"), "0123456789");
+
+        // When
+        backend.put(KEY, source);
+
+        // Then
+        assertEquals(3, fakeS3.uploadedParts.get());
+        assertArrayEquals("0123456789".getBytes(), fakeS3.objects.get("/documents/" + KEY));
+        assertTrue(fakeS3.uploads.isEmpty());
+        try (InputStream in = backend.get(KEY)) {
+            assertArrayEquals("0123456789".getBytes(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    void getRange_ShouldReturnOnlyRequestedBytes() throws Exception {
+        // Given
+        backend.put(KEY, Files.writeString(tempDir.resolve("source"), "012"));
+
+        // When
+        byte[] range;
+        try (InputStream in = backend.getRange(KEY, 1, 2)) {
+            range = in.readAllBytes();
+        }
+
+        // Then
+        assertArrayEquals("12".getBytes(), range);
+        assertEquals(0, fakeS3.uploadedParts.get());
+    }
+
+    @Test
+    void getRange_WhenServerIgnoresRange_ShouldStillReturnOnlyRequestedBytes() throws Exception {
+        // Given
+        backend.put(KEY, Files.writeString(tempDir.resolve("source"), "0123456789"));
+        fakeS3.ignoreRange = true;
+
+        // When
+        byte[] range;
+        try (InputStream in = backend.getRange(KEY, 2, 3)) {
+            range = in.readAllBytes();
+        }
+
+        // Then
+        assertArrayEquals("234".getBytes(), range);
+    }
+
+    @Test
+    void delete_ShouldRemoveObject() throws Exception {
+        // Given
+        backend.put(KEY, Files.writeString(tempDir.resolve("source"), "012"));
+        assertTrue(backend.exists(KEY));
+
+        // When
+        backend.delete(KEY);
+
+        // Then
+        assertFalse(backend.exists(KEY));
+        assertThrows(NoSuchFileException.class, () -> backend.get(KEY));
+    }
+
+    @Test
+    void list_ShouldPageThroughKeysInOrder() throws Exception {
+        // Given
+        for (String key : List.of("aa/01", "aa/02", "bb/01")) {
+            backend.put(key, Files.writeString(tempDir.resolve("source"), key));
+        }
+
+        // When
+        List<String> firstPage = backend.list(null, 2);
+        List<String> secondPage = backend.list(firstPage.get(1), 2);
+
+        // Then
+        assertEquals(List.of("aa/01", "aa/02"), firstPage);
+        assertEquals(List.of("bb/01"), secondPage);
+    }
+
+    /**
+     * Minimal in-memory stand-in for an S3-compatible server (single bucket, path-style).
+     */
+    private static class FakeS3 {
+
+        private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+        private final AtomicInteger uploadedParts = new AtomicInteger();
+        private final AtomicInteger uploadIds = new AtomicInteger();
+        private volatile boolean ignoreRange;
+
+        void handle(HttpExchange exchange) throws IOException {
+            try (exchange) {
+                String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+                if (authorization == null || !authorization.startsWith("AWS4-HMAC-SHA256 Credential=test-key/")) {
+                    exchange.sendResponseHeaders(403, -1);
+                    return;
+                }
+
+                String path = exchange.getRequestURI().getRawPath();
+                Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+                byte[] body = exchange.getRequestBody().readAllBytes();
+
+                switch (exchange.getRequestMethod()) {
+                    case "PUT" -> {
+                        if (query.containsKey("uploadId")) {
+                            uploads.get(query.get("uploadId")).put(Integer.parseInt(query.get("partNumber")), body);
+                            uploadedParts.incrementAndGet();
+                            exchange.getResponseHeaders().set("ETag", "\"part-" + query.get("partNumber") + "\"");
+                        } else {
+                            objects.put(path, body);
+                        }
+                        exchange.sendResponseHeaders(200, -1);
+                    }
+                    case "POST" -> {
+                        if (query.containsKey("uploads")) {
+                            String uploadId = "upload-" + uploadIds.incrementAndGet();
+                            uploads.put(uploadId, new TreeMap<>());
+                            send(exchange, 200, ("<InitiateMultipartUploadResult><UploadId>" + uploadId
+                                    + "</UploadId></InitiateMultipartUploadResult>").getBytes());
+                        } else {
+                            ByteArrayOutputStream content = new ByteArrayOutputStream();
+                            for (byte[] part : uploads.remove(query.get("uploadId")).values()) {
+                                content.write(part);
+                            }
+                            objects.put(path, content.toByteArray());
+                            send(exchange, 200, "<CompleteMultipartUploadResult/>".getBytes());
+                        }
+                    }
+                    case "GET" -> {
+                        if ("2".equals(query.get("list-type"))) {
+                            send(exchange, 200, listObjects(query).getBytes());
+                            return;
+                        }
+                        byte[] object = objects.get(path);
+                        if (object == null) {
+                            exchange.sendResponseHeaders(404, -1);
+                            return;
+                        }
+                        String range = exchange.getRequestHeaders().getFirst("Range");
+                        if (range == null || ignoreRange) {
+                            send(exchange, 200, object);
+                            return;
+                        }
+                        String[] bounds = range.substring("bytes=".length()).split("-");
+                        send(exchange, 206, Arrays.copyOfRange(object,
+                                Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1]) + 1));
+                    }
+                    case "HEAD" -> exchange.sendResponseHeaders(objects.containsKey(path) ? 200 : 404, -1);
+                    case "DELETE" -> {
+                        if (query.containsKey("uploadId")) {
+                            uploads.remove(query.get("uploadId"));
+                        } else {
+                            objects.remove(path);
+                        }
+                        exchange.sendResponseHeaders(204, -1);
+                    }
+                    default -> exchange.sendResponseHeaders(405, -1);
+                }
+            }
+        }
+
+        private void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+
+        private String listObjects(Map<String, String> query) {
+            String startAfter = query.getOrDefault("start-after", "").replace("%2F", "/");
+            int maxKeys = Integer.parseInt(query.get("max-keys"));
+            StringBuilder xml = new StringBuilder("<ListBucketResult>");
+            objects.keySet().stream()
+                    .map(path -> path.substring("/documents/".length()))
+                    .filter(key -> key.compareTo(startAfter) > 0)
+                    .sorted()
+                    .limit(maxKeys)
+                    .forEach(key -> xml.append("<Contents><Key>").append(key).append("</Key></Contents>"));
+            return xml.append("</ListBucketResult>").toString();
+        }
+
+        private Map<String, String> parseQuery(String query) {
+            Map<String, String> params = new HashMap<>();
+            if (query != null) {
+                for (String pair : query.split("&")) {
+                    String[] parts = pair.split("=", 2);
+                    params.put(parts[0], parts.length > 1 ? parts[1] : "");
+                }
+            }
+            return params;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.demo.service;
+
+import com.example.demo.contract.StorageBackend;
+import com.example.demo.dto.DocumentFileDTO;
+import com.example.demo.dto.SignedUrlDTO;
+import com.example.demo.entity.Document;
+import com.example.demo.entity.Societe;
+import com.example.demo.entity.StoredBlob;
+import com.example.demo.entity.User;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.exception.InvalidTokenException;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.repository.DocumentRepository;
+import com.example.demo.repository.StoredBlobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SignedDownloadServiceTest {
+
+    private static final String EMPREINTE = "6ae8a75555209fd6c44157c0aed8016e763ff435a19cf186f76863140143ff72";
+    private static final String KEY = "6a/e8/" + EMPREINTE;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private StoredBlobRepository storedBlobRepository;
+
+    @Mock
+    private StorageBackend storageBackend;
+
+    @InjectMocks
+    private SignedDownloadService signedDownloadService;
+
+    private Document document;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(signedDownloadService, "signingKey", "test-signing-key");
+        ReflectionTestUtils.setField(signedDownloadService, "ttlSeconds", 300L);
+        ReflectionTestUtils.setField(signedDownloadService, "baseUrl", "");
+
+        Societe societe = Societe.builder().id(1L).build();
+        user = User.builder().id(1L).role(User.Role.SOCIETE).societe(societe).build();
+        document = Document.builder().id(1L).nomFichierOriginal("facture.pdf").empreinteSha256(EMPREINTE)
+                .societe(societe).build();
+    }
+
+    @Test
+    void resolve_WithSignedUrl_ShouldStreamBlobWithoutDatabaseAccess() throws Exception {
+        // Given
+        stubBlob();
+        String token = tokenOf(signedDownloadService.sign(1L, user));
+        clearInvocations(documentRepository, storedBlobRepository);
+        when(storageBackend.get(KEY)).thenReturn(new ByteArrayInputStream("content".getBytes()));
+
+        // When
+        DocumentFileDTO file = signedDownloadService.resolve(token);
+
+        // Then
+        assertEquals("facture.pdf", file.getNomFichierOriginal());
+        assertEquals(7, file.getContentLength());
+        assertEquals("\"" + EMPREINTE + "\"", file.getEtag());
+        assertNotNull(file.getExpiresAt());
+        try (InputStream in = file.getResource().getInputStream()) {
+            assertArrayEquals("content".getBytes(), in.readAllBytes());
+        }
+        verifyNoInteractions(documentRepository, storedBlobRepository);
+    }
+
+    @Test
+    void resolve_WithTamperedToken_ShouldThrowException() {
+        // Given
+        stubBlob();
+        String token = tokenOf(signedDownloadService.sign(1L, user));
+        String tampered = (token.charAt(0) == 'A' ? "B" : "A") + token.substring(1);
+
+        // When & Then
+        assertThrows(InvalidTokenException.class, () -> signedDownloadService.resolve(tampered));
+        assertThrows(InvalidTokenException.class, () -> signedDownloadService.resolve("not-a-token"));
+    }
+
+    @Test
+    void resolve_WithExpiredToken_ShouldThrowException() {
+        // Given
+        stubBlob();
+        ReflectionTestUtils.setField(signedDownloadService, "ttlSeconds", -1L);
+        String token = tokenOf(signedDownloadService.sign(1L, user));
+
+        // When & Then
+        assertThrows(InvalidTokenException.class, () -> signedDownloadService.resolve(token));
+    }
+
+    @Test
+    void sign_WithDocumentNotYetMigrated_ShouldThrowException() {
+        // Given
+        document.setEmpreinteSha256(null);
+        when(documentRepository.findById(1L)).thenReturn(Optional.of(document));
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class, () -> signedDownloadService.sign(1L, user));
+
+        assertEquals("SIGNED_URL_UNAVAILABLE", exception.getCode());
+    }
+
+    @Test
+    void sign_WithDocumentOfAnotherSociete_ShouldThrowNotFound() {
+        // Given
+        User other = User.builder().id(2L).role(User.Role.SOCIETE).societe(Societe.builder().id(2L).build()).build();
+        when(documentRepository.findById(1L)).thenReturn(Optional.of(document));
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> signedDownloadService.sign(1L, other));
+        verifyNoInteractions(storedBlobRepository);
+    }
+
+    @Test
+    void sign_AsComptable_ShouldSignDocumentOfAnySociete() {
+        // Given
+        stubBlob();
+        User comptable = User.builder().id(3L).role(User.Role.COMPTABLE).build();
+
+        // When
+        SignedUrlDTO url = signedDownloadService.sign(1L, comptable);
+
+        // Then
+        assertNotNull(tokenOf(url));
+    }
+
+    @Test
+    void checkSigningKey_WithoutDedicatedKey_ShouldFailStartup() {
+        // Given
+        ReflectionTestUtils.setField(signedDownloadService, "signingKey", " ");
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> signedDownloadService.checkSigningKey());
+    }
+
+    private void stubBlob() {
+        when(documentRepository.findById(1L)).thenReturn(Optional.of(document));
+        when(storedBlobRepository.findByEmpreinteSha256(EMPREINTE)).thenReturn(Optional.of(StoredBlob.builder()
+                .empreinteSha256(EMPREINTE)
+                .cheminFichier(KEY)
+                .tailleFichier(7L)
+                .build()));
+    }
+
+    private String tokenOf(SignedUrlDTO url) {
+        assertTrue(url.getUrl().startsWith("/api/files/"));
+        return url.getUrl().substring("/api/files/".length());
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.demo.service;
+
+import com.example.demo.contract.DocumentStorageContract;
+import com.example.demo.entity.Document;
+import com.example.demo.entity.StorageMigrationState;
+import com.example.demo.entity.StoredBlob;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.repository.DocumentRepository;
+import com.example.demo.repository.StorageMigrationStateRepository;
+import com.example.demo.repository.StoredBlobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StorageMigrationServiceTest {
+
+    private static final String EMPREINTE = "6ae8a75555209fd6c44157c0aed8016e763ff435a19cf186f76863140143ff72";
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private StoredBlobRepository storedBlobRepository;
+
+    @Mock
+    private StorageMigrationStateRepository stateRepository;
+
+    @Mock
+    private DocumentStorageContract documentStorage;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StorageMigrationService storageMigrationService;
+
+    @TempDir
+    Path tempDir;
+
+    private Document legacy;
+    private StoredBlob blob;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        storageMigrationService = new StorageMigrationService(documentRepository, storedBlobRepository,
+                stateRepository, documentStorage, transactionManager);
+        ReflectionTestUtils.setField(storageMigrationService, "batchSize", 2);
+
+        Path legacyFile = Files.writeString(tempDir.resolve("facture.pdf"), "test content");
+        legacy = Document.builder()
+                .id(5L)
+                .cheminFichier(legacyFile.toString())
+                .build();
+        blob = StoredBlob.builder()
+                .id(7L)
+                .empreinteSha256(EMPREINTE)
+                .cheminFichier("6a/e8/" + EMPREINTE)
+                .tailleFichier(12L)
+                .build();
+    }
+
+    @Test
+    void migrateNextBatch_WithLegacyDocument_ShouldAdoptFileAndPersistProgress() {
+        // Given
+        when(documentRepository.findByEmpreinteSha256IsNullAndIdGreaterThanOrderByIdAsc(eq(0L), any()))
+                .thenReturn(List.of(legacy));
+        when(documentStorage.adopt(Path.of(legacy.getCheminFichier()))).thenReturn(blob);
+
+        // When
+        int migrated = storageMigrationService.migrateNextBatch();
+        storageMigrationService.migrateNextBatch();
+
+        // Then
+        assertEquals(1, migrated);
+        verify(documentRepository).updateStockage(5L, blob.getCheminFichier(), EMPREINTE, 12L);
+        verify(stateRepository, atLeastOnce()).save(any(StorageMigrationState.class));
+        // The legacy pass is done (short batch), the second run moves on to the blobs
+        verify(storedBlobRepository).findByIdGreaterThanOrderByIdAsc(eq(0L), any());
+    }
+
+    @Test
+    void migrateNextBatch_WithPoisonItem_ShouldSkipItAndMigrateTheRestOfTheBatch() throws Exception {
+        // Given
+        Document next = Document.builder()
+                .id(6L)
+                .cheminFichier(Files.writeString(tempDir.resolve("avoir.pdf"), "other content").toString())
+                .build();
+        when(documentRepository.findByEmpreinteSha256IsNullAndIdGreaterThanOrderByIdAsc(eq(0L), any()))
+                .thenReturn(List.of(legacy, next));
+        when(documentStorage.adopt(Path.of(legacy.getCheminFichier())))
+                .thenThrow(new BusinessException("FILE_SAVE_ERROR", "Erreur lors de la migration du fichier"));
+        when(documentStorage.adopt(Path.of(next.getCheminFichier()))).thenReturn(blob);
+
+        // When
+        int migrated = storageMigrationService.migrateNextBatch();
+        storageMigrationService.migrateNextBatch();
+
+        // Then
+        assertEquals(1, migrated);
+        verify(documentRepository, never()).updateStockage(eq(5L), any(), any(), anyLong());
+        verify(documentRepository).updateStockage(6L, blob.getCheminFichier(), EMPREINTE, 12L);
+        verify(transactionManager).rollback(any());
+        // The next run resumes after the whole batch, the failed item included
+        verify(documentRepository).findByEmpreinteSha256IsNullAndIdGreaterThanOrderByIdAsc(eq(6L), any());
+    }
+
+    @Test
+    void migrateNextBatch_WithPersistedProgress_ShouldResumeFromIt() {
+        // Given
+        when(stateRepository.findById(StorageMigrationState.ID)).thenReturn(Optional.of(
+                StorageMigrationState.builder().id(StorageMigrationState.ID)
+                        .phase(StorageMigrationState.Phase.BLOBS).lastId(42L).build()));
+
+        // When
+        storageMigrationService.migrateNextBatch();
+
+        // Then
+        verify(storedBlobRepository).findByIdGreaterThanOrderByIdAsc(eq(42L), any());
+        verify(documentRepository, never()).findByEmpreinteSha256IsNullAndIdGreaterThanOrderByIdAsc(anyLong(), any());
+    }
+
+    @Test
+    void migrateNextBatch_WithBlobInOldLayout_ShouldRelocateIt() {
+        // Given
+        givenPhase(StorageMigrationState.Phase.BLOBS);
+        when(storedBlobRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenReturn(List.of(blob));
+        when(documentStorage.relocate(blob)).thenReturn(true);
+
+        // When
+        int relocated = storageMigrationService.migrateNextBatch();
+
+        // Then
+        assertEquals(1, relocated);
+        assertFalse(storageMigrationService.isFinished());
+        verify(documentRepository).updateCheminFichierByEmpreinte(EMPREINTE, blob.getCheminFichier());
+    }
+
+    @Test
+    void migrateNextBatch_WithBlobWithoutCrc_ShouldRecordItAndFinish() {
+        // Given
+        givenPhase(StorageMigrationState.Phase.CRC);
+        when(storedBlobRepository.findByCrc32IsNullAndIdGreaterThanOrderByIdAsc(eq(0L), any()))
+                .thenReturn(List.of(blob));
+
+        // When
+        int backfilled = storageMigrationService.migrateNextBatch();
+
+        // Then
+        assertEquals(1, backfilled);
+        assertTrue(storageMigrationService.isFinished());
+        verify(documentStorage).recordCrc32(blob);
+    }
+
+    private void givenPhase(StorageMigrationState.Phase phase) {
+        when(stateRepository.findById(StorageMigrationState.ID)).thenReturn(Optional.of(
+                StorageMigrationState.builder().id(StorageMigrationState.ID).phase(phase).lastId(0L).build()));
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.demo.service;
+
+import com.example.demo.contract.DocumentStorageContract;
+import com.example.demo.entity.StorageIntent;
+import com.example.demo.repository.StorageIntentRepository;
+import com.example.demo.repository.StoredBlobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StorageReconciliationServiceTest {
+
+    private static final String REFERENCED = "6ae8a75555209fd6c44157c0aed8016e763ff435a19cf186f76863140143ff72";
+    private static final String ORPHAN = "0b2ea6f3bde1d3fa0e5a0b6cfa1a4ad74a3e0a4f0e1f0c0f7d6b8f5ee2b3a1c9";
+    private static final String IN_FLIGHT = "c0ffee3bde1d3fa0e5a0b6cfa1a4ad74a3e0a4f0e1f0c0f7d6b8f5ee2b3a1c9f";
+
+    @Spy
+    private LocalStorageBackend storageBackend;
+
+    @Mock
+    private StoredBlobRepository storedBlobRepository;
+
+    @Mock
+    private StorageIntentRepository storageIntentRepository;
+
+    @Mock
+    private DocumentStorageContract documentStorage;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private StorageReconciliationService storageReconciliationService;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(storageBackend, "blobDir", tempDir.toString());
+        ReflectionTestUtils.setField(storageReconciliationService, "ioBudget", 100);
+        ReflectionTestUtils.setField(storageReconciliationService, "pageSize", 10);
+        ReflectionTestUtils.setField(storageReconciliationService, "graceMinutes", 60L);
+    }
+
+    @Test
+    void reconcileNextBatch_ShouldDeleteOnlyUnreferencedObjects() throws Exception {
+        // Given
+        Path referenced = write("6a/e8/" + REFERENCED);
+        Path orphan = write("0b/2e/" + ORPHAN);
+        Path inFlight = write("c0/ff/" + IN_FLIGHT);
+        Path staging = write(".tmp/upload");
+        when(storageIntentRepository.findByCreatedAtBeforeOrderByIdAsc(any(), any())).thenReturn(List.of());
+        when(storedBlobRepository.findByIdGreaterThanOrderByIdAsc(any(), any())).thenReturn(List.of());
+        when(storedBlobRepository.findExistingEmpreintes(any())).thenAnswer(invocation -> matching(invocation, REFERENCED));
+        when(storageIntentRepository.findPendingChemins(any()))
+                .thenAnswer(invocation -> matching(invocation, "c0/ff/" + IN_FLIGHT));
+
+        // When
+        storageReconciliationService.reconcileNextBatch();
+
+        // Then
+        assertTrue(Files.exists(referenced));
+        assertFalse(Files.exists(orphan));
+        assertTrue(Files.exists(inFlight));
+        assertTrue(Files.exists(staging));
+    }
+
+    @Test
+    void reconcileNextBatch_WithExpiredIntent_ShouldDeleteObjectOfFailedUpload() throws Exception {
+        // Given
+        Path object = write("0b/2e/" + ORPHAN);
+        StorageIntent intent = StorageIntent.builder().id(3L).cheminFichier("0b/2e/" + ORPHAN).build();
+        when(storageIntentRepository.findByCreatedAtBeforeOrderByIdAsc(any(), any())).thenReturn(List.of(intent));
+        when(storedBlobRepository.existsByCheminFichier("0b/2e/" + ORPHAN)).thenReturn(false);
+        ReflectionTestUtils.setField(storageReconciliationService, "ioBudget", 1);
+
+        // When
+        int spent = storageReconciliationService.reconcileNextBatch();
+
+        // Then
+        assertEquals(1, spent);
+        assertFalse(Files.exists(object));
+        verify(storageIntentRepository).delete(intent);
+        verify(storedBlobRepository, never()).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void reconcileNextBatch_WithUndeletableObject_ShouldDropIntentAndFinishThePass() throws Exception {
+        // Given
+        StorageIntent intent = StorageIntent.builder().id(3L).cheminFichier("0b/2e/" + ORPHAN).build();
+        when(storageIntentRepository.findByCreatedAtBeforeOrderByIdAsc(any(), any())).thenReturn(List.of(intent));
+        when(storedBlobRepository.existsByCheminFichier("0b/2e/" + ORPHAN)).thenReturn(false);
+        doThrow(new IOException("permission denied")).when(storageBackend).delete("0b/2e/" + ORPHAN);
+        when(storedBlobRepository.findByIdGreaterThanOrderByIdAsc(any(), any())).thenReturn(List.of());
+
+        // When
+        storageReconciliationService.reconcileNextBatch();
+
+        // Then
+        verify(storageIntentRepository).delete(intent);
+        verify(storedBlobRepository).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void reconcileNextBatch_WithObjectReferencedDuringTheScan_ShouldKeepIt() throws Exception {
+        // Given
+        Path object = write("0b/2e/" + ORPHAN);
+        when(storageIntentRepository.findByCreatedAtBeforeOrderByIdAsc(any(), any())).thenReturn(List.of());
+        when(storedBlobRepository.findByIdGreaterThanOrderByIdAsc(any(), any())).thenReturn(List.of());
+        when(storageIntentRepository.findPendingChemins(any())).thenReturn(Set.of());
+        // The upload commits its blob between the page query and the delete
+        when(storedBlobRepository.findExistingEmpreintes(any()))
+                .thenReturn(Set.of())
+                .thenReturn(Set.of(ORPHAN));
+
+        // When
+        storageReconciliationService.reconcileNextBatch();
+
+        // Then
+        assertTrue(Files.exists(object));
+        InOrder inOrder = inOrder(storageIntentRepository, storedBlobRepository);
+        inOrder.verify(storageIntentRepository).findPendingChemins(any());
+        inOrder.verify(storedBlobRepository).findExistingEmpreintes(any());
+    }
+
+    @Test
+    void reconcileNextBatch_WithUnreferencedBlobRow_ShouldReapItThroughTheLockedPath() {
+        // Given
+        when(storageIntentRepository.findByCreatedAtBeforeOrderByIdAsc(any(), any())).thenReturn(List.of());
+        // Left at zero references by an upload whose transaction rolled back
+        when(storedBlobRepository.findUnreferencedIds(any(), eq(0L), any())).thenReturn(List.of(7L));
+        when(documentStorage.reapIfUnreferenced(7L)).thenReturn(true);
+        ReflectionTestUtils.setField(storageReconciliationService, "ioBudget", 1);
+
+        // When
+        int spent = storageReconciliationService.reconcileNextBatch();
+
+        // Then
+        assertEquals(1, spent);
+        verify(documentStorage).reapIfUnreferenced(7L);
+        verify(storedBlobRepository, never()).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    private Set<String> matching(InvocationOnMock invocation, String stored) {
+        Collection<String> queried = invocation.getArgument(0);
+        return queried.contains(stored) ? Set.of(stored) : Set.of();
+    }
+
+    private Path write(String key) throws Exception {
+        Path path = tempDir.resolve(key);
+        Files.createDirectories(path.getParent());
+        return Files.writeString(path, "content");
+    }
+}
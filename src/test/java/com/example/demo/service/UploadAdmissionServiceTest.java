@@ -0,0 +1,75 @@
+package com.example.demo.service;
+
+import com.example.demo.config.UploadAdmissionProperties;
+import com.example.demo.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UploadAdmissionServiceTest {
+
+    private static final String ICE = "001234567000089";
+
+    private UploadAdmissionProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private UploadAdmissionService uploadAdmissionService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new UploadAdmissionProperties();
+        properties.setMaxConcurrent(1);
+        properties.setBytesPerSecond(DataSize.ofBytes(1));
+        properties.setBurst(DataSize.ofMegabytes(1));
+        meterRegistry = new SimpleMeterRegistry();
+        uploadAdmissionService = new UploadAdmissionService(properties, meterRegistry);
+    }
+
+    @Test
+    void acquire_OverConcurrencyLimit_ShouldRejectUntilReleased() {
+        // Given
+        uploadAdmissionService.acquire(ICE, 100);
+
+        // When & Then
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> uploadAdmissionService.acquire(ICE, 100));
+        assertEquals("UPLOAD_CONCURRENCY_LIMIT", exception.getCode());
+
+        uploadAdmissionService.release(ICE);
+        assertDoesNotThrow(() -> uploadAdmissionService.acquire(ICE, 100));
+        assertEquals(1, meterRegistry.get("documents.upload.admission")
+                .tag("outcome", "rejected_concurrency").counter().count());
+    }
+
+    @Test
+    void acquire_OverByteRate_ShouldRejectWithRetryAfterAndFreeTheSlot() {
+        // Given
+        uploadAdmissionService.acquire(ICE, DataSize.ofMegabytes(1).toBytes());
+        uploadAdmissionService.release(ICE);
+
+        // When
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> uploadAdmissionService.acquire(ICE, 10));
+
+        // Then
+        assertEquals("UPLOAD_RATE_LIMIT", exception.getCode());
+        assertTrue(exception.getRetryAfterSeconds() >= 9);
+        assertEquals(0, meterRegistry.get("documents.upload.in-flight").gauge().value());
+    }
+
+    @Test
+    void acquire_WithTenantOverride_ShouldApplyTenantLimits() {
+        // Given
+        UploadAdmissionProperties.TenantLimits limits = new UploadAdmissionProperties.TenantLimits();
+        limits.setMaxConcurrent(2);
+        properties.getTenants().put(ICE, limits);
+
+        // When & Then
+        uploadAdmissionService.acquire(ICE, 100);
+        assertDoesNotThrow(() -> uploadAdmissionService.acquire(ICE, 100));
+        uploadAdmissionService.acquire("000000000000001", 100);
+        assertThrows(TooManyRequestsException.class, () -> uploadAdmissionService.acquire("000000000000001", 100));
+    }
+}
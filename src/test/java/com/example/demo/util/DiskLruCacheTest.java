@@ -0,0 +1,50 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiskLruCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void put_OverCapacity_ShouldEvictLeastRecentlyUsed() throws Exception {
+        // Given
+        DiskLruCache cache = new DiskLruCache(tempDir, 10);
+        cache.put("a", Files.writeString(cache.newTempFile(), "aaaa"));
+        cache.put("b", Files.writeString(cache.newTempFile(), "bbbb"));
+        cache.get("a");
+
+        // When
+        cache.put("c", Files.writeString(cache.newTempFile(), "cccc"));
+
+        // Then
+        assertTrue(cache.get("a").isPresent());
+        assertTrue(cache.get("b").isEmpty());
+        assertTrue(cache.get("c").isPresent());
+        assertFalse(Files.exists(tempDir.resolve("b")));
+        assertEquals(8, cache.getTotalBytes());
+    }
+
+    @Test
+    void open_WithExistingEntries_ShouldRestoreThemAndDropTemporaryFiles() throws Exception {
+        // Given
+        DiskLruCache cache = new DiskLruCache(tempDir, 10);
+        cache.put("a", Files.writeString(cache.newTempFile(), "aaaa"));
+        Path leftover = Files.writeString(cache.newTempFile(), "partial");
+
+        // When
+        DiskLruCache reopened = new DiskLruCache(tempDir, 10);
+
+        // Then
+        assertTrue(reopened.get("a").isPresent());
+        assertEquals(4, reopened.getTotalBytes());
+        assertFalse(Files.exists(leftover));
+    }
+}
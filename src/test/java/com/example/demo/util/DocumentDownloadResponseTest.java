@@ -0,0 +1,124 @@
+package com.example.demo.util;
+
+import com.example.demo.dto.DocumentFileDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentDownloadResponseTest {
+
+    private DocumentFileDTO file;
+    private Resource resource;
+
+    @BeforeEach
+    void setUp() {
+        resource = new ByteArrayResource("0123456789".getBytes());
+        file = DocumentFileDTO.builder()
+                .resource(resource)
+                .nomFichierOriginal("facture.pdf")
+                .contentLength(10)
+                .lastModified(1_700_000_000_000L)
+                .etag("\"1-a-18bcfe56800\"")
+                .build();
+    }
+
+    @Test
+    void build_WithoutRange_ShouldReturnFileResourceWithValidators() {
+        // When
+        ResponseEntity<Resource> response = DocumentDownloadResponse.build(file, new HttpHeaders());
+
+        // Then
+        assertSame(resource, response.getBody());
+        assertEquals("\"1-a-18bcfe56800\"", response.getHeaders().getETag());
+        assertEquals(1_700_000_000_000L, response.getHeaders().getLastModified());
+        assertEquals("bytes", response.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+    }
+
+    @Test
+    void build_WithRangeAndMatchingIfRange_ShouldLetSpringSliceTheResource() {
+        // Given
+        HttpHeaders request = new HttpHeaders();
+        request.set(HttpHeaders.RANGE, "bytes=0-4");
+        request.set(HttpHeaders.IF_RANGE, "\"1-a-18bcfe56800\"");
+
+        // When
+        ResponseEntity<Resource> response = DocumentDownloadResponse.build(file, request);
+
+        // Then
+        assertSame(resource, response.getBody());
+    }
+
+    @Test
+    void build_WithRangeAndStaleIfRange_ShouldSendWholeFile() {
+        // Given
+        HttpHeaders request = new HttpHeaders();
+        request.set(HttpHeaders.RANGE, "bytes=0-4");
+        request.set(HttpHeaders.IF_RANGE, "\"1-a-0\"");
+
+        // When
+        ResponseEntity<Resource> response = DocumentDownloadResponse.build(file, request);
+
+        // Then
+        assertInstanceOf(InputStreamResource.class, response.getBody());
+        assertEquals(10, response.getHeaders().getContentLength());
+    }
+
+    @Test
+    void build_WithRangeAndMatchingIfRangeDate_ShouldLetSpringSliceTheResource() {
+        // Given
+        HttpHeaders request = new HttpHeaders();
+        request.set(HttpHeaders.RANGE, "bytes=5-");
+        request.set(HttpHeaders.IF_RANGE, "Tue, 14 Nov 2023 22:13:20 GMT");
+
+        // When
+        ResponseEntity<Resource> response = DocumentDownloadResponse.build(file, request);
+
+        // Then
+        assertSame(resource, response.getBody());
+    }
+
+    @Test
+    void build_WithMatchingIfNoneMatch_ShouldReturnNotModifiedWithoutBody() {
+        // Given
+        HttpHeaders request = new HttpHeaders();
+        request.setIfNoneMatch(List.of("\"other\"", "W/\"1-a-18bcfe56800\""));
+
+        // When
+        ResponseEntity<Resource> response = DocumentDownloadResponse.build(file, request);
+
+        // Then
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals("\"1-a-18bcfe56800\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void build_WithImmutableFile_ShouldLetClientsCacheWithoutRevalidating() {
+        // Given
+        file.setImmutable(true);
+
+        // When
+        ResponseEntity<Resource> response = DocumentDownloadResponse.build(file, new HttpHeaders());
+
+        // Then
+        assertEquals("max-age=86400, private, immutable", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    void build_WithPendingFile_ShouldRequireRevalidation() {
+        // When
+        ResponseEntity<Resource> response = DocumentDownloadResponse.build(file, new HttpHeaders());
+
+        // Then
+        assertEquals("no-cache, private", response.getHeaders().getCacheControl());
+    }
+}
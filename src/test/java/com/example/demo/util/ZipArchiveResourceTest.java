@@ -0,0 +1,81 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipArchiveResourceTest {
+
+    private ZipArchiveResource archive;
+
+    @BeforeEach
+    void setUp() {
+        archive = new ZipArchiveResource("test.zip", List.of(
+                entry("manifest.csv", "fichier\r\nFAC-1_facture.pdf\r\n"),
+                entry("FAC-1_facture.pdf", "%PDF-1.4 content"),
+                entry("TK-2_ticket été.jpg", "jpeg content")), 1_700_000_000_000L);
+    }
+
+    @Test
+    void getInputStream_ShouldProduceReadableArchiveOfDeclaredLength() throws Exception {
+        // When
+        byte[] bytes;
+        try (InputStream in = archive.getInputStream()) {
+            bytes = in.readAllBytes();
+        }
+
+        // Then
+        assertEquals(archive.contentLength(), bytes.length);
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bytes))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), new String(zip.readAllBytes()));
+            }
+        }
+        assertEquals(List.of("manifest.csv", "FAC-1_facture.pdf", "TK-2_ticket été.jpg"), List.copyOf(entries.keySet()));
+        assertEquals("%PDF-1.4 content", entries.get("FAC-1_facture.pdf"));
+    }
+
+    @Test
+    void skip_ShouldResumeAtAnyOffset() throws Exception {
+        // Given
+        byte[] full;
+        try (InputStream in = archive.getInputStream()) {
+            full = in.readAllBytes();
+        }
+
+        for (int offset = 0; offset < full.length; offset += 7) {
+            // When
+            byte[] tail;
+            try (InputStream in = archive.getInputStream()) {
+                assertEquals(offset, in.skip(offset));
+                tail = in.readAllBytes();
+            }
+
+            // Then
+            assertArrayEquals(Arrays.copyOfRange(full, offset, full.length), tail, "offset " + offset);
+        }
+    }
+
+    private static ZipArchiveResource.Entry entry(String name, String content) {
+        byte[] bytes = content.getBytes();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return new ZipArchiveResource.Entry(name, bytes.length, crc.getValue(),
+                LocalDateTime.of(2024, 3, 15, 10, 30), new ByteArrayResource(bytes));
+    }
+}